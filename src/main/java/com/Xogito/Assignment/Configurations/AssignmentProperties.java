@@ -0,0 +1,129 @@
+package com.Xogito.Assignment.Configurations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Application specific settings bound from the {@code assignment.*}
+ * properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "assignment")
+public class AssignmentProperties {
+
+	private final Jdbc jdbc = new Jdbc();
+
+	private final Counts counts = new Counts();
+
+	private final Members members = new Members();
+
+	private final Threads threads = new Threads();
+
+	private final Datasource datasource = new Datasource();
+
+	@Data
+	public static class Jdbc {
+
+		/**
+		 * Number of rows sent per JDBC batch by the bulk write operations.
+		 */
+		private int batchSize = 500;
+
+		/**
+		 * Number of rows fetched per round trip by the streaming reads.
+		 */
+		private int fetchSize = 500;
+
+		/**
+		 * Maximum number of ids bound to a single {@code IN} clause by the reads of
+		 * a list of ids.
+		 */
+		private int inClauseSize = 500;
+
+	}
+
+	@Data
+	public static class Counts {
+
+		/**
+		 * Time the number of matches of a name search is cached for.
+		 */
+		private Duration searchTtl = Duration.ofSeconds(30);
+
+		/**
+		 * Maximum number of name searches whose number of matches is cached.
+		 */
+		private long searchMaximumSize = 10_000;
+
+	}
+
+	@Data
+	public static class Members {
+
+		/**
+		 * Default maximum number of members embedded in a project's full view -
+		 * unset to embed every member.
+		 */
+		private Integer embeddedLimit;
+
+	}
+
+	@Data
+	public static class Threads {
+
+		/**
+		 * Whether the requests are served on virtual threads instead of Tomcat's
+		 * thread pool. Needs Java 21.
+		 */
+		private boolean virtual = false;
+
+	}
+
+	@Data
+	public static class Datasource {
+
+		/**
+		 * Read replicas serving the read-only transactions - empty to serve every
+		 * transaction from the primary {@code spring.datasource.*} database.
+		 */
+		private List<Database> replicas = new ArrayList<>();
+
+		/**
+		 * Time the read-only transactions of a client are still served by the
+		 * primary after one of its writes commits, so it reads its writes even when
+		 * the replicas lag behind.
+		 */
+		private Duration replicationLag = Duration.ofSeconds(1);
+
+		/**
+		 * Whether the replicas, empty HSQLDB databases not fed by replication, are
+		 * seeded with a copy of the primary database once it's initialized, and
+		 * then refreshed with its rows every half of the replication lag.
+		 */
+		private boolean seedReplicas = false;
+
+		/**
+		 * Databases the users are partitioned across by the hash of their email -
+		 * empty to keep them in the primary database along with the projects.
+		 */
+		private List<Database> userShards = new ArrayList<>();
+
+	}
+
+	@Data
+	public static class Database {
+
+		private String url;
+
+		private String username;
+
+		private String password;
+
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.Xogito.Assignment.Configurations;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Registers the CBOR and Smile message converters offered to the clients that
+ * accept them instead of JSON. Their mappers are built from the same
+ * {@code spring.jackson.*} settings as the JSON one, so the
+ * {@link com.fasterxml.jackson.annotation.JsonView @JsonView} indicators select
+ * the same properties in every format.
+ */
+@Configuration
+public class BinaryFormatsConfiguration {
+
+	public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+
+}
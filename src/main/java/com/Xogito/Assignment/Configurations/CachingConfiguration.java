@@ -0,0 +1,81 @@
+package com.Xogito.Assignment.Configurations;
+
+import java.util.List;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Enables the entity caches in front of the service lookups. The caches are
+ * bounded Caffeine caches configured through the {@code spring.cache.*}
+ * properties, and their hit, miss and eviction counts are published as
+ * {@code cache.*} metrics. The number of matches of the name searches is cached
+ * apart, for the shorter time set by {@code assignment.counts.search-ttl}, since
+ * it isn't evicted by the writes.
+ * <p>
+ * The caching advice wraps the services' transactions, so a hit never starts
+ * one, and the entries written or evicted inside a transaction are only
+ * written or evicted once it commits, so a concurrent lookup can't cache the
+ * values it's replacing.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CachingConfiguration {
+
+	/**
+	 * Users keyed by id.
+	 */
+	public static final String USERS = "users";
+
+	/**
+	 * Users keyed by email.
+	 */
+	public static final String USERS_BY_EMAIL = "usersByEmail";
+
+	/**
+	 * Projects, along with their members, keyed by id.
+	 */
+	public static final String PROJECTS = "projects";
+
+	/**
+	 * Number of users matching a name search, keyed by the lower-cased search.
+	 */
+	public static final String USER_NAME_COUNTS = "userNameCounts";
+
+	/**
+	 * Number of projects matching a name search, keyed by the lower-cased search.
+	 */
+	public static final String PROJECT_NAME_COUNTS = "projectNameCounts";
+
+	@Bean
+	public static BeanPostProcessor transactionAwareCaches() {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof CaffeineCacheManager manager ? new TransactionAwareCacheManagerProxy(manager) : bean;
+			}
+
+		};
+	}
+
+	@Bean
+	public CacheManagerCustomizer<CaffeineCacheManager> searchCountCaches(AssignmentProperties props) {
+		return manager -> {
+			for (String name : List.of(USER_NAME_COUNTS, PROJECT_NAME_COUNTS)) {
+				manager.registerCustomCache(name,
+						Caffeine.newBuilder().expireAfterWrite(props.getCounts().getSearchTtl())
+								.maximumSize(props.getCounts().getSearchMaximumSize()).recordStats().build());
+			}
+		};
+	}
+
+}
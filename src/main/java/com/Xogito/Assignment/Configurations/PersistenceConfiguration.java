@@ -0,0 +1,92 @@
+package com.Xogito.Assignment.Configurations;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.Xogito.Assignment.Utilities.ConnectionHoldTime;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Keeps the database connections scoped to the services' transactions instead
+ * of the whole request ({@code spring.jpa.open-in-view=false}), so the
+ * responses are serialized after the session is closed: the lazy associations
+ * that weren't loaded by the service are written as null instead of failing.
+ * <p>
+ * The time every request holds connections is published as the
+ * {@code db.connection.hold} timer, tagged with the request's method and URI
+ * pattern.
+ */
+@Configuration
+public class PersistenceConfiguration {
+
+	public static final String HOLD_METRIC = "db.connection.hold";
+
+	@Bean
+	public Hibernate6Module hibernateModule() {
+		return new Hibernate6Module();
+	}
+
+	@Bean
+	public static BeanPostProcessor connectionHoldTime() {
+		return new ConnectionHoldTimeTracking();
+	}
+
+	/**
+	 * Times the connections of every data source. It's applied before any other
+	 * post processor wraps the data sources, so the timed connections are the
+	 * pool's own.
+	 */
+	private static class ConnectionHoldTimeTracking implements BeanPostProcessor, PriorityOrdered {
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			return bean instanceof DataSource dataSource ? ConnectionHoldTime.track(dataSource) : bean;
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE;
+		}
+
+	}
+
+	@Bean
+	public OncePerRequestFilter connectionHoldTimeFilter(MeterRegistry registry) {
+		return new OncePerRequestFilter() {
+
+			@Override
+			protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+					throws ServletException, IOException {
+				ConnectionHoldTime.start();
+				try {
+					chain.doFilter(request, response);
+				} finally {
+					long held = ConnectionHoldTime.stop();
+					Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+					Timer.builder(HOLD_METRIC).description("Time the request held database connections")
+							.tag("method", request.getMethod()).tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+							.register(registry).record(held, TimeUnit.NANOSECONDS);
+				}
+			}
+
+		};
+	}
+
+}
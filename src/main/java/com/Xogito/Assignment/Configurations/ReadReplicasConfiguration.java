@@ -0,0 +1,162 @@
+package com.Xogito.Assignment.Configurations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import com.Xogito.Assignment.Utilities.HsqlSnapshot;
+import com.Xogito.Assignment.Utilities.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Splits the reads from the writes when {@code assignment.datasource.replicas}
+ * lists at least one replica: the read-only transactions are served by the
+ * replicas and the rest by the primary {@code spring.datasource.*} database,
+ * as decided by the {@link ReplicaRoutingDataSource}. Every replica pool is
+ * configured like the primary one, read-only, and published through the
+ * {@code hikaricp.*} metrics under its own pool name.
+ * <p>
+ * The time of a client's last write travels in the {@code last-write} cookie,
+ * so only its own reads are served by the primary right after it writes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "assignment.datasource.replicas[0].url")
+@Slf4j
+public class ReadReplicasConfiguration {
+
+	public static final String LAST_WRITE_COOKIE = "last-write";
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariConfig primaryPool(DataSourceProperties properties) {
+		HikariConfig config = new HikariConfig();
+		config.setPoolName("primary");
+		config.setJdbcUrl(properties.determineUrl());
+		config.setUsername(properties.determineUsername());
+		config.setPassword(properties.determinePassword());
+		config.setDriverClassName(properties.determineDriverClassName());
+		return config;
+	}
+
+	@Bean
+	public DataSource dataSource(HikariConfig primaryPool, AssignmentProperties props, MeterRegistry registry) {
+		MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(registry);
+		primaryPool.setMetricsTrackerFactory(metrics);
+		List<AssignmentProperties.Database> replicas = props.getDatasource().getReplicas();
+		List<DataSource> replicaPools = new ArrayList<>();
+		for (int i = 0; i < replicas.size(); i++) {
+			HikariConfig config = new HikariConfig();
+			primaryPool.copyStateTo(config);
+			config.setPoolName("replica-" + i);
+			config.setJdbcUrl(replicas.get(i).getUrl());
+			config.setUsername(replicas.get(i).getUsername());
+			config.setPassword(replicas.get(i).getPassword());
+			config.setReadOnly(true);
+			replicaPools.add(new HikariDataSource(config));
+		}
+		return ReplicaRoutingDataSource.of(new HikariDataSource(primaryPool), replicaPools,
+				props.getDatasource().getReplicationLag());
+	}
+
+	@Bean
+	public OncePerRequestFilter lastWriteFilter(AssignmentProperties props) {
+		int maxAge = (int) Math.max(1, props.getDatasource().getReplicationLag().toSeconds());
+		return new OncePerRequestFilter() {
+
+			@Override
+			protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+					throws ServletException, IOException {
+				Cookie sent = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+				ReplicaRoutingDataSource.bind(parseLastWrite(sent), written -> {
+					if (!response.isCommitted()) {
+						Cookie cookie = new Cookie(LAST_WRITE_COOKIE, String.valueOf(written));
+						cookie.setPath("/");
+						cookie.setHttpOnly(true);
+						cookie.setMaxAge(maxAge);
+						response.addCookie(cookie);
+					}
+				});
+				try {
+					chain.doFilter(request, response);
+				} finally {
+					ReplicaRoutingDataSource.unbind();
+				}
+			}
+
+		};
+	}
+
+	/**
+	 * Runs the refreshes of the seeded replicas.
+	 */
+	@Bean(destroyMethod = "shutdownNow")
+	@ConditionalOnProperty(name = "assignment.datasource.seed-replicas", havingValue = "true")
+	public ScheduledExecutorService replicasRefreshes() {
+		return Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "replicas-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Seeds the replicas with a copy of the primary database once its tables and
+	 * sample data are created, and then refreshes their rows every half of the
+	 * replication lag, so a write reaches them before the lag runs out, as the
+	 * replication would.
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "assignment.datasource.seed-replicas", havingValue = "true")
+	public SmartInitializingSingleton replicasSeeding(DataSource dataSource, AssignmentProperties props,
+			ScheduledExecutorService replicasRefreshes) {
+		return () -> {
+			List<DataSource> replicas = props.getDatasource().getReplicas().stream().<DataSource>map(
+					replica -> new DriverManagerDataSource(replica.getUrl(), replica.getUsername(), replica.getPassword()))
+					.toList();
+			replicas.forEach(replica -> HsqlSnapshot.copy(dataSource, replica));
+			long period = Math.max(1, props.getDatasource().getReplicationLag().toMillis() / 2);
+			replicasRefreshes.scheduleWithFixedDelay(() -> replicas.forEach(replica -> {
+				try {
+					HsqlSnapshot.refresh(dataSource, replica);
+				} catch (RuntimeException e) {
+					// retried on the next refresh
+					log.warn("The replica could not be refreshed", e);
+				}
+			}), period, period, TimeUnit.MILLISECONDS);
+		};
+	}
+
+	private static long parseLastWrite(Cookie cookie) {
+		try {
+			return cookie == null ? 0 : Long.parseLong(cookie.getValue());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.Xogito.Assignment.Configurations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.Xogito.Assignment.Repositories.UserShards;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Stores the users in the databases listed by
+ * {@code assignment.datasource.user-shards}, when there are any, instead of the
+ * primary database, through the {@link UserShards}. Every shard gets a pool
+ * configured like the primary one, and its tables are created when they're
+ * missing. The shards are queried in parallel by a pool with a thread per
+ * connection of the shards' pools, so a query never waits for a thread while
+ * its shard has a free connection.
+ * <p>
+ * The memberships in the primary database then refer to users it doesn't hold,
+ * so the foreign key from the {@code project_users} table to the users is
+ * dropped, and the transactions of the services only borrow a primary
+ * connection once they query it.
+ */
+@Configuration
+public class UserShardsConfiguration {
+
+	@Bean
+	public UserShards userShards(AssignmentProperties props, Environment env) {
+		List<AssignmentProperties.Database> databases = props.getDatasource().getUserShards();
+		if (databases.isEmpty()) {
+			return UserShards.none();
+		}
+		HikariConfig pool = Binder.get(env).bind("spring.datasource.hikari", Bindable.of(HikariConfig.class))
+				.orElseGet(HikariConfig::new);
+		List<HikariDataSource> pools = new ArrayList<>();
+		for (int i = 0; i < databases.size(); i++) {
+			HikariConfig config = new HikariConfig();
+			pool.copyStateTo(config);
+			config.setPoolName("user-shard-" + i);
+			config.setJdbcUrl(databases.get(i).getUrl());
+			config.setUsername(databases.get(i).getUsername());
+			config.setPassword(databases.get(i).getPassword());
+			HikariDataSource shard = new HikariDataSource(config);
+			new ResourceDatabasePopulator(new ClassPathResource("user-shards.sql")).execute(shard);
+			pools.add(shard);
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-shards-");
+		threadFactory.setDaemon(true);
+		int threads = pools.stream().mapToInt(HikariDataSource::getMaximumPoolSize).sum();
+		return new UserShards(new ArrayList<>(pools), Executors.newFixedThreadPool(threads, threadFactory),
+				props.getJdbc().getFetchSize());
+	}
+
+	/**
+	 * Drops the foreign key from the memberships to the primary database's users
+	 * once the primary database's tables are created.
+	 */
+	@Bean
+	public SmartInitializingSingleton userShardsMemberships(UserShards shards, DataSource dataSource) {
+		return () -> {
+			if (!shards.isEnabled()) {
+				return;
+			}
+			JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+			Long keys = jdbc.queryForObject("select count(*) from information_schema.table_constraints "
+					+ "where constraint_name = 'FK_PROJECT_USERS_USER'", Long.class);
+			if (keys != null && keys > 0) {
+				jdbc.execute("alter table project_users drop constraint fk_project_users_user");
+			}
+		};
+	}
+
+	@Bean
+	public static BeanPostProcessor userShardsLazyConnections(Environment env) {
+		boolean sharded = Binder.get(env).bind("assignment.datasource.user-shards[0].url", String.class).isBound();
+		return new LazyConnections(sharded);
+	}
+
+	/**
+	 * Wraps the primary data source so a transaction only fetches a connection
+	 * when its first statement runs: a service transaction answered by the shards
+	 * alone never borrows one. It's applied after the data source is wrapped to
+	 * time its connections, so only the fetched connections are timed.
+	 */
+	private record LazyConnections(boolean sharded) implements BeanPostProcessor, Ordered {
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			return sharded && bean instanceof DataSource dataSource
+					&& !(bean instanceof LazyConnectionDataSourceProxy) ? new LazyConnectionDataSourceProxy(dataSource)
+							: bean;
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.LOWEST_PRECEDENCE;
+		}
+
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.Xogito.Assignment.Configurations;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Serves every request on its own virtual thread instead of Tomcat's bounded
+ * thread pool, so a request blocked on the database doesn't keep the rest
+ * waiting for a free thread, and runs the streamed responses on virtual
+ * threads as well. Enabled by {@code assignment.threads.virtual}, which the
+ * {@code virtual-threads} profile sets along with a matching connection pool.
+ * <p>
+ * The virtual threads need Java 21, so the executor is looked up when the
+ * application starts and it fails to start on an older runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "assignment.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadRequests() {
+		ExecutorService executor = newVirtualThreadPerTaskExecutor();
+		return handler -> handler.setExecutor(executor);
+	}
+
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(
+					"The virtual threads need Java 21, but the application runs on Java " + Runtime.version() + ".", e);
+		}
+	}
+
+}
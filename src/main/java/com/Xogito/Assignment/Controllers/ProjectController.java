@@ -1,6 +1,12 @@
 package com.Xogito.Assignment.Controllers;
 
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,21 +16,33 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.Xogito.Assignment.Configurations.AssignmentProperties;
+import com.Xogito.Assignment.Configurations.BinaryFormatsConfiguration;
+import com.Xogito.Assignment.DTOs.MembershipBatch;
+import com.Xogito.Assignment.DTOs.ProjectVersions;
 import com.Xogito.Assignment.Implementations.ProjectServiceImpl;
 import com.Xogito.Assignment.Models.Project;
+import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Utilities.Cursors;
+import com.Xogito.Assignment.Utilities.ETags;
 import com.Xogito.Assignment.Utilities.ResponseHandler;
 import com.Xogito.Assignment.Utilities.Views;
 import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -33,12 +51,15 @@ import lombok.RequiredArgsConstructor;
  */
 @RestController
 @Validated
-@RequestMapping(path = "/api/projects", produces = "application/json")
+@RequestMapping(path = "/api/projects", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+		BinaryFormatsConfiguration.SMILE_VALUE })
 @RequiredArgsConstructor
 public class ProjectController {
 
 	private final ProjectServiceImpl pSrv;
 
+	private final AssignmentProperties props;
+
 	/**
 	 * Implements
 	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAll
@@ -47,28 +68,143 @@ public class ProjectController {
 	 * 
 	 * @param page The number of the page of projects to retrieve - must be greater than 0.
 	 * @param size The number of projects per page to retrieve - must be greater than 1.
+	 * @param fields The fields to retrieve - every field when absent.
 	 * @return A JSON response with an array of projects.
 	 */
 	@GetMapping(path = "")
 	@JsonView(Views.coreDataView.class)
 	public ResponseEntity<?> getAllProjects(@RequestParam(name = "page", defaultValue = "0") @Min(value = 0, message = "page value must be equal or greater than 0") int page,
-			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size, UriComponentsBuilder uriBuilder,
+			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size,
+			@RequestParam(name = "count", defaultValue = "false") boolean count,
+			@RequestParam(name = "fields", required = false) List<String> fields, UriComponentsBuilder uriBuilder,
 			  HttpServletResponse response) {
-		return ResponseHandler.handleDataResponses(pSrv.findAll(page, size), HttpStatus.OK);
+		List<?> projects = fields == null ? pSrv.findAll(page, size) : pSrv.findAll(page, size, fields);
+		return ResponseHandler.handleCountedResponses(projects, count ? pSrv.count() : null, HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllById
+	 * findAllById()} method and returns a JSON response with the projects with the
+	 * given ids, in the requested order, along with the ids that weren't found.
+	 * 
+	 * @param ids The ids of the projects to retrieve - between 1 and 1000 ids.
+	 * @param fields The fields to retrieve - every field when absent.
+	 * @return A JSON response with the found projects and the missing ids.
+	 */
+	@GetMapping(path = "", params = "ids")
+	@JsonView(Views.coreDataView.class)
+	public ResponseEntity<?> getProjectsByIds(
+			@RequestParam(name = "ids") @Size(min = 1, max = 1000, message = "ids must hold between 1 and 1000 ids") List<Long> ids,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		return ResponseHandler.handleDataResponses(
+				fields == null ? pSrv.findAllById(ids) : pSrv.findAllById(ids, fields), HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllAfter
+	 * findAllAfter()} method and returns a JSON response with the projects
+	 * following the given cursor. The cursor of the next page is sent in the
+	 * {@value com.Xogito.Assignment.Utilities.ResponseHandler#NEXT_CURSOR_HEADER}
+	 * header.
+	 * 
+	 * @param after The cursor returned by the previous page - blank to retrieve the first page.
+	 * @param size The number of projects per page to retrieve - must be greater than 1.
+	 * @param fields The fields to retrieve - every field when absent.
+	 * @return A JSON response with an array of projects.
+	 */
+	@GetMapping(path = "", params = "after")
+	@JsonView(Views.coreDataView.class)
+	public ResponseEntity<?> getAllProjectsAfter(@RequestParam(name = "after") String after,
+			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		if (fields != null) {
+			Slice<Map<String, Object>> projects = pSrv.findAllAfter(Cursors.decode(after), size, fields);
+			return ResponseHandler.handleCursorResponses(projects.getContent(),
+					Cursors.next(projects, p -> (Long) p.get("id")), HttpStatus.OK);
+		}
+		Slice<Project> projects = pSrv.findAllAfter(Cursors.decode(after), size);
+		return ResponseHandler.handleCursorResponses(projects.getContent(), Cursors.next(projects, Project::getId),
+				HttpStatus.OK);
 	}
 
 	/**
 	 * Implements
 	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findById
 	 * findById()} method and returns a JSON response of a project with the given id.
+	 * The project's entity tag is sent in the {@code ETag} header, and a 304
+	 * response without a body is returned, without loading the project, when it
+	 * matches the {@code If-None-Match} header. When the embedded members are
+	 * capped, the cursor to keep listing them at {@code /{id}/users} is sent in
+	 * the {@value com.Xogito.Assignment.Utilities.ResponseHandler#NEXT_CURSOR_HEADER}
+	 * header. Requesting only some fields skips the members, the entity tag and
+	 * the cache.
 	 * 
 	 * @param id The search parameter.
+	 * @param members The maximum number of members to embed - defaults to
+	 *                {@code assignment.members.embedded-limit}, or every member
+	 *                when unset.
+	 * @param fields The fields to retrieve - every field when absent.
+	 * @param request The current request.
 	 * @return A JSON response with the matching projects.
 	 */
 	@GetMapping("/{id}")
 	@JsonView(Views.fullDataView.class)
-	public ResponseEntity<?> getProjectById(@PathVariable("id") Long id) {
-		return ResponseHandler.handleDataResponses(pSrv.findById(id), HttpStatus.OK);
+	public ResponseEntity<?> getProjectById(@PathVariable("id") Long id,
+			@RequestParam(name = "members", required = false) @Min(value = 1, message = "members value must be equal or greater than 1") Integer members,
+			@RequestParam(name = "fields", required = false) List<String> fields, WebRequest request) {
+		if (fields != null) {
+			return ResponseHandler.handleDataResponses(pSrv.findById(id, fields), HttpStatus.OK);
+		}
+		Integer limit = members != null ? members : props.getMembers().getEmbeddedLimit();
+		if (limit == null) {
+			if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(pSrv.findETag(id))) {
+				return null;
+			}
+			Project p = pSrv.findById(id, Views.fullDataView.class);
+			return ResponseHandler.handleVersionedResponses(p, ETags.of(p), HttpStatus.OK);
+		}
+		ProjectVersions versions = pSrv.findVersions(id);
+		String etag = ETags.of(versions);
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+		Project p = pSrv.findById(id, limit);
+		String next = !p.getUsers().isEmpty() && versions.getMembers() > p.getUsers().size()
+				? Cursors.encode(p.getUsers().stream().mapToLong(User::getId).max().getAsLong())
+				: null;
+		return ResponseHandler.handleVersionedResponses(p, etag, next, HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findMembers
+	 * findMembers()} method and returns a JSON response with the members of a
+	 * project following the given cursor. The cursor of the next page is sent in
+	 * the {@value com.Xogito.Assignment.Utilities.ResponseHandler#NEXT_CURSOR_HEADER}
+	 * header.
+	 * 
+	 * @param id The id of the project.
+	 * @param after The cursor returned by the previous page - blank or absent to retrieve the first page.
+	 * @param size The number of members per page to retrieve - must be greater than 1.
+	 * @param fields The fields to retrieve - every field when absent.
+	 * @return A JSON response with an array of users.
+	 */
+	@GetMapping("/{id}/users")
+	@JsonView(Views.coreDataView.class)
+	public ResponseEntity<?> getProjectMembers(@PathVariable("id") Long id,
+			@RequestParam(name = "after", required = false) String after,
+			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		if (fields != null) {
+			Slice<Map<String, Object>> users = pSrv.findMembers(id, Cursors.decode(after), size, fields);
+			return ResponseHandler.handleCursorResponses(users.getContent(),
+					Cursors.next(users, u -> (Long) u.get("id")), HttpStatus.OK);
+		}
+		Slice<User> users = pSrv.findMembers(id, Cursors.decode(after), size);
+		return ResponseHandler.handleCursorResponses(users.getContent(), Cursors.next(users, User::getId),
+				HttpStatus.OK);
 	}
 
 	/**
@@ -79,6 +215,7 @@ public class ProjectController {
 	 * @param name The search parameter - must not be left blank.
 	 * @param page The number of the page of projects to retrieve - must be greater than 0.
 	 * @param size The number of projects per page to retrieve - must be greater than 0.
+	 * @param fields The fields to retrieve - every field when absent.
 	 * @return A JSON response with an array of projects.
 	 */
 	@GetMapping(path = "/name", params = "value")
@@ -86,8 +223,30 @@ public class ProjectController {
 	public ResponseEntity<?> getProjectsByName(
 			@RequestParam(name = "value") @NotBlank(message = "name must not be left blank") String name,
 			@RequestParam(name = "page", defaultValue = "0") @Min(value = 0, message = "page value must be equal or greater than 0") int page,
-			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size) {
-		return ResponseHandler.handleDataResponses(pSrv.findAllByName(name, page, size), HttpStatus.OK);
+			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size,
+			@RequestParam(name = "count", defaultValue = "false") boolean count,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		List<?> projects = fields == null ? pSrv.findAllByName(name, page, size)
+				: pSrv.findAllByName(name, page, size, fields);
+		return ResponseHandler.handleCountedResponses(projects,
+				count ? pSrv.countByName(name) : null, HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#suggest
+	 * suggest()} method and returns a JSON response with the projects whose name
+	 * starts with the given prefix.
+	 * 
+	 * @param prefix The typed prefix - must not be left blank.
+	 * @param limit The maximum number of projects to retrieve - must be between 1 and 50.
+	 * @return A JSON response with an array of ids and names.
+	 */
+	@GetMapping(path = "/suggest", params = "prefix")
+	public ResponseEntity<?> suggestProjects(
+			@RequestParam(name = "prefix") @NotBlank(message = "prefix must not be left blank") String prefix,
+			@RequestParam(name = "limit", defaultValue = "10") @Min(value = 1, message = "limit value must be equal or greater than 1") @Max(value = 50, message = "limit value must be equal or smaller than 50") int limit) {
+		return ResponseHandler.handleDataResponses(pSrv.suggest(prefix, limit), HttpStatus.OK);
 	}
 
 	/**
@@ -110,11 +269,31 @@ public class ProjectController {
 	 * 
 	 * @param id The project id.
 	 * @param p The new project property values.
-	 * @return A JSON response with the updated project.
+	 * @param ifMatch The entity tags the project must match - optional.
+	 * @return A JSON response with the updated project, without its members.
 	 */
 	@PutMapping("/{id}")
-	public ResponseEntity<?> updateProject(@PathVariable("id") Long id, @RequestBody @Valid Project p) {
-		return ResponseHandler.handleDataResponses(pSrv.update(id, p), HttpStatus.OK);
+	@JsonView(Views.coreDataView.class)
+	public ResponseEntity<?> updateProject(@PathVariable("id") Long id, @RequestBody @Valid Project p,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return ResponseHandler.handleDataResponses(pSrv.update(id, p, ifMatch), HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#patch
+	 * patch()} method and returns a JSON response with the updated project.
+	 * 
+	 * @param id The project id.
+	 * @param fields The project properties to update - only the sent ones are changed.
+	 * @param ifMatch The entity tags the project must match - optional.
+	 * @return A JSON response with the updated project, without its members.
+	 */
+	@PatchMapping(path = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
+	@JsonView(Views.coreDataView.class)
+	public ResponseEntity<?> patchProject(@PathVariable("id") Long id, @RequestBody JsonNode fields,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return ResponseHandler.handleDataResponses(pSrv.patch(id, fields, ifMatch), HttpStatus.OK);
 	}
 
 	/**
@@ -132,17 +311,51 @@ public class ProjectController {
 		return ResponseHandler.handleDataResponses(pSrv.assignUser(projectId, email), HttpStatus.OK);
 	}
 
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#updateMembers
+	 * updateMembers()} method and returns a JSON response with the outcome of
+	 * every requested change.
+	 * 
+	 * @param projectId The project id.
+	 * @param batch The emails or ids of the users to add and remove.
+	 * @return A JSON response with an array of results.
+	 */
+	@PostMapping("/{id}/members:batch")
+	public ResponseEntity<?> updateProjectMembers(@PathVariable("id") Long projectId,
+			@RequestBody @Valid MembershipBatch batch) {
+		return ResponseHandler.handleDataResponses(pSrv.updateMembers(projectId, batch), HttpStatus.OK);
+	}
+
 	/**
 	 * Implements
 	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#remove
 	 * remove()} method and returns a JSON response of the removed project.
 	 * 
 	 * @param id The project id.
+	 * @param ifMatch The entity tags the project must match - optional.
 	 * @return A JSON response with the removed project.
 	 */
 	@DeleteMapping("/{id}")
-	public ResponseEntity<?> removeProject(@PathVariable("id") Long id) {
-		return ResponseHandler.handleDataResponses(pSrv.remove(id), HttpStatus.OK);
+	@JsonView(Views.coreDataView.class)
+	public ResponseEntity<?> removeProject(@PathVariable("id") Long id,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return ResponseHandler.handleDataResponses(pSrv.remove(id, ifMatch), HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#removeAll
+	 * removeAll()} method and returns a JSON response of the removed projects.
+	 * 
+	 * @param ids The ids of the projects to remove - between 1 and 1000 ids.
+	 * @return A JSON response with an array of the removed projects.
+	 */
+	@DeleteMapping(path = "", params = "ids")
+	@JsonView(Views.coreDataView.class)
+	public ResponseEntity<?> removeProjects(
+			@RequestParam(name = "ids") @Size(min = 1, max = 1000, message = "ids must hold between 1 and 1000 ids") List<Long> ids) {
+		return ResponseHandler.handleDataResponses(pSrv.removeAll(ids), HttpStatus.OK);
 	}
 
 }
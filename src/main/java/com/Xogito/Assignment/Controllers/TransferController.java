@@ -0,0 +1,81 @@
+package com.Xogito.Assignment.Controllers;
+
+import java.io.InputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.Xogito.Assignment.Implementations.ProjectServiceImpl;
+import com.Xogito.Assignment.Implementations.UserServiceImpl;
+import com.Xogito.Assignment.Utilities.DataFormat;
+import com.Xogito.Assignment.Utilities.ResponseHandler;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for the bulk import and export endpoints of the
+ * {@link com.Xogito.Assignment.Models.User User} and
+ * {@link com.Xogito.Assignment.Models.Project Project} collections.
+ */
+@RestController
+@RequestMapping(path = "/api", produces = "application/json")
+@RequiredArgsConstructor
+public class TransferController {
+
+	private final UserServiceImpl uSrv;
+	private final ProjectServiceImpl pSrv;
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#importUsers
+	 * importUsers()} method and returns a JSON response with the import summary.
+	 * 
+	 * @param body        The streamed NDJSON or CSV body.
+	 * @param contentType The format of the body.
+	 * @return A JSON response with the number of inserted users and the rejected
+	 *         rows.
+	 */
+	@PostMapping(path = "/users:import", consumes = { DataFormat.NDJSON_VALUE, DataFormat.CSV_VALUE })
+	public ResponseEntity<?> importUsers(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+		return ResponseHandler.handleDataResponses(uSrv.importUsers(body, DataFormat.of(contentType)), HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#exportUsers
+	 * exportUsers()} method and streams every user as NDJSON or CSV.
+	 * 
+	 * @param accept The accepted formats - NDJSON by default.
+	 * @return A streamed response with one user per line.
+	 */
+	@GetMapping(path = "/users:export", produces = { DataFormat.NDJSON_VALUE, DataFormat.CSV_VALUE })
+	public ResponseEntity<StreamingResponseBody> exportUsers(
+			@RequestHeader(name = HttpHeaders.ACCEPT, defaultValue = DataFormat.NDJSON_VALUE) String accept) {
+		DataFormat format = DataFormat.accepting(accept);
+		return ResponseEntity.ok().contentType(format.getMediaType()).body(out -> uSrv.exportUsers(out, format));
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#exportProjects
+	 * exportProjects()} method and streams every project, without its members, as
+	 * NDJSON or CSV.
+	 * 
+	 * @param accept The accepted formats - NDJSON by default.
+	 * @return A streamed response with one project per line.
+	 */
+	@GetMapping(path = "/projects:export", produces = { DataFormat.NDJSON_VALUE, DataFormat.CSV_VALUE })
+	public ResponseEntity<StreamingResponseBody> exportProjects(
+			@RequestHeader(name = HttpHeaders.ACCEPT, defaultValue = DataFormat.NDJSON_VALUE) String accept) {
+		DataFormat format = DataFormat.accepting(accept);
+		return ResponseEntity.ok().contentType(format.getMediaType()).body(out -> pSrv.exportProjects(out, format));
+	}
+
+}
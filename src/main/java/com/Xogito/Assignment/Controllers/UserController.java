@@ -1,24 +1,44 @@
 package com.Xogito.Assignment.Controllers;
 
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.Xogito.Assignment.Configurations.BinaryFormatsConfiguration;
+import com.Xogito.Assignment.Implementations.ProjectServiceImpl;
 import com.Xogito.Assignment.Implementations.UserServiceImpl;
+import com.Xogito.Assignment.Models.Project;
 import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Utilities.Cursors;
+import com.Xogito.Assignment.Utilities.ETags;
 import com.Xogito.Assignment.Utilities.ResponseHandler;
+import com.Xogito.Assignment.Utilities.Views;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -26,12 +46,16 @@ import lombok.RequiredArgsConstructor;
  * endpoints.
  */
 @RestController
-@RequestMapping(path = "/api/users", produces = "application/json")
+@Validated
+@RequestMapping(path = "/api/users", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+		BinaryFormatsConfiguration.SMILE_VALUE })
 @RequiredArgsConstructor
 public class UserController {
 
 	private final UserServiceImpl uSrv;
 
+	private final ProjectServiceImpl pSrv;
+
 	/**
 	 * Implements
 	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findAll
@@ -42,27 +66,125 @@ public class UserController {
 	 *             than 0.
 	 * @param size The number of users per page to retrieve - must be equal or
 	 *             greater than 1.
+	 * @param fields The fields to retrieve - every field when absent.
 	 * @return A JSON response with an array of users.
 	 */
 	@GetMapping(path = "")
 	public ResponseEntity<?> getAllUsers(
 			@RequestParam(name = "page", defaultValue = "0") @Min(value = 0, message = "page value must be equal or greater than 0") int page,
-			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size) {
-		return ResponseHandler.handleDataResponses(uSrv.findAll(page, size), HttpStatus.OK);
+			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size,
+			@RequestParam(name = "count", defaultValue = "false") boolean count,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		List<?> users = fields == null ? uSrv.findAll(page, size) : uSrv.findAll(page, size, fields);
+		return ResponseHandler.handleCountedResponses(users, count ? uSrv.count() : null, HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findAllById
+	 * findAllById()} method and returns a JSON response with the users with the
+	 * given ids, in the requested order, along with the ids that weren't found.
+	 * 
+	 * @param ids The ids of the users to retrieve - between 1 and 1000 ids.
+	 * @param fields The fields to retrieve - every field when absent.
+	 * @return A JSON response with the found users and the missing ids.
+	 */
+	@GetMapping(path = "", params = "ids")
+	public ResponseEntity<?> getUsersByIds(
+			@RequestParam(name = "ids") @Size(min = 1, max = 1000, message = "ids must hold between 1 and 1000 ids") List<Long> ids,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		return ResponseHandler.handleDataResponses(
+				fields == null ? uSrv.findAllById(ids) : uSrv.findAllById(ids, fields), HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findAllAfter
+	 * findAllAfter()} method and returns a JSON response with the users following
+	 * the given cursor. The cursor of the next page is sent in the
+	 * {@value com.Xogito.Assignment.Utilities.ResponseHandler#NEXT_CURSOR_HEADER}
+	 * header.
+	 * 
+	 * @param after The cursor returned by the previous page - blank to retrieve
+	 *              the first page.
+	 * @param size  The number of users per page to retrieve - must be equal or
+	 *              greater than 1.
+	 * @param fields The fields to retrieve - every field when absent.
+	 * @return A JSON response with an array of users.
+	 */
+	@GetMapping(path = "", params = "after")
+	public ResponseEntity<?> getAllUsersAfter(@RequestParam(name = "after") String after,
+			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		if (fields != null) {
+			Slice<Map<String, Object>> users = uSrv.findAllAfter(Cursors.decode(after), size, fields);
+			return ResponseHandler.handleCursorResponses(users.getContent(), Cursors.next(users, u -> (Long) u.get("id")),
+					HttpStatus.OK);
+		}
+		Slice<User> users = uSrv.findAllAfter(Cursors.decode(after), size);
+		return ResponseHandler.handleCursorResponses(users.getContent(), Cursors.next(users, User::getId),
+				HttpStatus.OK);
 	}
 
 	/**
 	 * Implements
 	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findById
 	 * findById()} method and returns a JSON response of a user with the given
-	 * id.
+	 * id. The user's entity tag is sent in the {@code ETag} header, and a 304
+	 * response without a body is returned when it matches the
+	 * {@code If-None-Match} header. Requesting only some fields skips the entity
+	 * tag and the cache.
 	 * 
 	 * @param id The search parameter.
+	 * @param fields The fields to retrieve - every field when absent.
+	 * @param request The current request.
 	 * @return A JSON response with the matching users.
 	 */
 	@GetMapping("/{id}")
-	public ResponseEntity<?> getUserById(@PathVariable("id") Long id) {
-		return ResponseHandler.handleDataResponses(uSrv.findById(id), HttpStatus.OK);
+	public ResponseEntity<?> getUserById(@PathVariable("id") Long id,
+			@RequestParam(name = "fields", required = false) List<String> fields, WebRequest request) {
+		if (fields != null) {
+			return ResponseHandler.handleDataResponses(uSrv.findById(id, fields), HttpStatus.OK);
+		}
+		User u = uSrv.findById(id);
+		String etag = ETags.of(u);
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+		return ResponseHandler.handleVersionedResponses(u, etag, HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllByMember
+	 * findAllByMember()} method and returns a JSON response with the projects a
+	 * user belongs to following the given cursor. The cursor of the next page is
+	 * sent in the
+	 * {@value com.Xogito.Assignment.Utilities.ResponseHandler#NEXT_CURSOR_HEADER}
+	 * header.
+	 * 
+	 * @param id The id of the user.
+	 * @param after The cursor returned by the previous page - blank or absent to
+	 *              retrieve the first page.
+	 * @param size The number of projects per page to retrieve - must be equal or
+	 *             greater than 1.
+	 * @param fields The fields to retrieve - every field when absent.
+	 * @return A JSON response with an array of projects.
+	 */
+	@GetMapping("/{id}/projects")
+	@JsonView(Views.coreDataView.class)
+	public ResponseEntity<?> getUserProjects(@PathVariable("id") Long id,
+			@RequestParam(name = "after", required = false) String after,
+			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		if (fields != null) {
+			Slice<Map<String, Object>> projects = pSrv.findAllByMember(id, Cursors.decode(after), size, fields);
+			return ResponseHandler.handleCursorResponses(projects.getContent(),
+					Cursors.next(projects, p -> (Long) p.get("id")), HttpStatus.OK);
+		}
+		Slice<Project> projects = pSrv.findAllByMember(id, Cursors.decode(after), size);
+		return ResponseHandler.handleCursorResponses(projects.getContent(), Cursors.next(projects, Project::getId),
+				HttpStatus.OK);
 	}
 
 	/**
@@ -76,14 +198,38 @@ public class UserController {
 	 *             than 0.
 	 * @param size The number of users per page to retrieve - must be equal or
 	 *             greater than 1.
+	 * @param fields The fields to retrieve - every field when absent.
 	 * @return A JSON response with an array of users.
 	 */
 	@GetMapping(path = "/name", params = "value")
 	public ResponseEntity<?> getUsersByName(
 			@RequestParam(name = "value") @NotBlank(message = "name must not be left blank") String name,
 			@RequestParam(name = "page", defaultValue = "0") @Min(value = 0, message = "page value must be equal or greater than 0") int page,
-			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size) {
-		return ResponseHandler.handleDataResponses(uSrv.findAllByName(name, page, size), HttpStatus.OK);
+			@RequestParam(name = "size", defaultValue = "5") @Min(value = 1, message = "size value must be equal or greater than 1") int size,
+			@RequestParam(name = "count", defaultValue = "false") boolean count,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		List<?> users = fields == null ? uSrv.findAllByName(name, page, size)
+				: uSrv.findAllByName(name, page, size, fields);
+		return ResponseHandler.handleCountedResponses(users,
+				count ? uSrv.countByName(name) : null, HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#suggest
+	 * suggest()} method and returns a JSON response with the users whose name or
+	 * email starts with the given prefix.
+	 * 
+	 * @param prefix The typed prefix - must not be left blank.
+	 * @param limit  The maximum number of users to retrieve - must be between 1
+	 *               and 50.
+	 * @return A JSON response with an array of ids and matching values.
+	 */
+	@GetMapping(path = "/suggest", params = "prefix")
+	public ResponseEntity<?> suggestUsers(
+			@RequestParam(name = "prefix") @NotBlank(message = "prefix must not be left blank") String prefix,
+			@RequestParam(name = "limit", defaultValue = "10") @Min(value = 1, message = "limit value must be equal or greater than 1") @Max(value = 50, message = "limit value must be equal or smaller than 50") int limit) {
+		return ResponseHandler.handleDataResponses(uSrv.suggest(prefix, limit), HttpStatus.OK);
 	}
 
 	/**
@@ -121,11 +267,29 @@ public class UserController {
 	 * 
 	 * @param id The user id.
 	 * @param u  The new user property values.
+	 * @param ifMatch The entity tags the user must match - optional.
 	 * @return A JSON response with the updated user.
 	 */
 	@PutMapping("/{id}")
-	public ResponseEntity<?> updateUser(@PathVariable("id") Long id, @RequestBody @Valid User u) {
-		return ResponseHandler.handleDataResponses(uSrv.update(id, u), HttpStatus.OK);
+	public ResponseEntity<?> updateUser(@PathVariable("id") Long id, @RequestBody @Valid User u,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return ResponseHandler.handleDataResponses(uSrv.update(id, u, ifMatch), HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#patch patch()}
+	 * method and returns a JSON response with the updated user.
+	 * 
+	 * @param id The user id.
+	 * @param fields The user properties to update - only the sent ones are changed.
+	 * @param ifMatch The entity tags the user must match - optional.
+	 * @return A JSON response with the updated user.
+	 */
+	@PatchMapping(path = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
+	public ResponseEntity<?> patchUser(@PathVariable("id") Long id, @RequestBody JsonNode fields,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return ResponseHandler.handleDataResponses(uSrv.patch(id, fields, ifMatch), HttpStatus.OK);
 	}
 
 	/**
@@ -134,10 +298,26 @@ public class UserController {
 	 * method and returns a JSON response of the removed user.
 	 * 
 	 * @param id The user id.
+	 * @param ifMatch The entity tags the user must match - optional.
 	 * @return A JSON response with the removed user.
 	 */
 	@DeleteMapping("/{id}")
-	public ResponseEntity<?> removeUser(@PathVariable("id") Long id) {
-		return ResponseHandler.handleDataResponses(uSrv.remove(id), HttpStatus.OK);
+	public ResponseEntity<?> removeUser(@PathVariable("id") Long id,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return ResponseHandler.handleDataResponses(uSrv.remove(id, ifMatch), HttpStatus.OK);
+	}
+
+	/**
+	 * Implements
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#removeAll
+	 * removeAll()} method and returns a JSON response of the removed users.
+	 * 
+	 * @param ids The ids of the users to remove - between 1 and 1000 ids.
+	 * @return A JSON response with an array of the removed users.
+	 */
+	@DeleteMapping(path = "", params = "ids")
+	public ResponseEntity<?> removeUsers(
+			@RequestParam(name = "ids") @Size(min = 1, max = 1000, message = "ids must hold between 1 and 1000 ids") List<Long> ids) {
+		return ResponseHandler.handleDataResponses(uSrv.removeAll(ids), HttpStatus.OK);
 	}
 }
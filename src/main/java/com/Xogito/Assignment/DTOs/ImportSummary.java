@@ -0,0 +1,60 @@
+package com.Xogito.Assignment.DTOs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk import. Only the first {@value #MAX_REPORTED} duplicate
+ * and invalid rows are listed, the counters include every row.
+ */
+@Data
+@NoArgsConstructor
+public class ImportSummary {
+
+	public static final int MAX_REPORTED = 100;
+
+	@Data
+	@AllArgsConstructor
+	@NoArgsConstructor
+	public static class InvalidRow {
+
+		private long line;
+
+		private Map<String, String> errors;
+
+	}
+
+	private long inserted;
+
+	private long duplicates;
+
+	private long invalid;
+
+	private List<String> duplicateEmails = new ArrayList<>();
+
+	private List<InvalidRow> invalidRows = new ArrayList<>();
+
+	public void addInserted(int rows) {
+		inserted += rows;
+	}
+
+	public void addDuplicate(String email) {
+		duplicates++;
+		if (duplicateEmails.size() < MAX_REPORTED) {
+			duplicateEmails.add(email);
+		}
+	}
+
+	public void addInvalid(long line, Map<String, String> errors) {
+		invalid++;
+		if (invalidRows.size() < MAX_REPORTED) {
+			invalidRows.add(new InvalidRow(line, errors));
+		}
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.Xogito.Assignment.DTOs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body for batch changes of a
+ * {@link com.Xogito.Assignment.Models.Project Project}'s members. Every entry
+ * is either a user's email or a user's id.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MembershipBatch {
+
+	private List<@NotBlank(message = "user must not be blank") String> add = new ArrayList<>();
+
+	private List<@NotBlank(message = "user must not be blank") String> remove = new ArrayList<>();
+
+}
@@ -0,0 +1,29 @@
+package com.Xogito.Assignment.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single entry of a {@link MembershipBatch}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MembershipResult {
+
+	public enum Operation {
+		ADD, REMOVE
+	}
+
+	public enum Status {
+		ADDED, ALREADY_ASSIGNED, REMOVED, NOT_ASSIGNED, NOT_FOUND
+	}
+
+	private String user;
+
+	private Operation operation;
+
+	private Status status;
+
+}
@@ -0,0 +1,23 @@
+package com.Xogito.Assignment.DTOs;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a lookup by a list of ids. The results follow the order of the
+ * requested ids, holding null for every id that wasn't found, and the missing
+ * ids are listed once.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MultiGetResult<T> {
+
+	private List<T> results;
+
+	private List<Long> missing;
+
+}
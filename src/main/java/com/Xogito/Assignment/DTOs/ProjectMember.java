@@ -0,0 +1,13 @@
+package com.Xogito.Assignment.DTOs;
+
+/**
+ * Membership row of a project, read from the join table without loading the
+ * project nor the user.
+ */
+public interface ProjectMember {
+
+	Long getProjectId();
+
+	Long getUserId();
+
+}
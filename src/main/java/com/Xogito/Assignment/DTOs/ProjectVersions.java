@@ -0,0 +1,15 @@
+package com.Xogito.Assignment.DTOs;
+
+/**
+ * Versions identifying the current state of a project and its members, read
+ * without loading either of them.
+ */
+public interface ProjectVersions {
+
+	Long getVersion();
+
+	Long getMembers();
+
+	Long getMembersVersion();
+
+}
@@ -0,0 +1,20 @@
+package com.Xogito.Assignment.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single entry of a typeahead response: the id of a matching entity and the
+ * value that matched the requested prefix.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Suggestion {
+
+	private Long id;
+
+	private String value;
+
+}
@@ -1,19 +1,68 @@
 package com.Xogito.Assignment.Implementations;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.Xogito.Assignment.Configurations.AssignmentProperties;
+import com.Xogito.Assignment.Configurations.CachingConfiguration;
+import com.Xogito.Assignment.DTOs.MembershipBatch;
+import com.Xogito.Assignment.DTOs.MembershipResult;
+import com.Xogito.Assignment.DTOs.MultiGetResult;
+import com.Xogito.Assignment.DTOs.MembershipResult.Operation;
+import com.Xogito.Assignment.DTOs.MembershipResult.Status;
+import com.Xogito.Assignment.DTOs.ProjectMember;
+import com.Xogito.Assignment.DTOs.ProjectVersions;
+import com.Xogito.Assignment.DTOs.Suggestion;
 import com.Xogito.Assignment.Models.Project;
 import com.Xogito.Assignment.Models.User;
 import com.Xogito.Assignment.Repositories.ProjectRepository;
 import com.Xogito.Assignment.Services.ProjectService;
+import com.Xogito.Assignment.Utilities.AfterCommit;
+import com.Xogito.Assignment.Utilities.DataFormat;
+import com.Xogito.Assignment.Utilities.ETags;
+import com.Xogito.Assignment.Utilities.FieldDiff;
+import com.Xogito.Assignment.Utilities.MultiGet;
+import com.Xogito.Assignment.Utilities.PrefixIndex;
+import com.Xogito.Assignment.Utilities.ReplicaRoutingDataSource;
+import com.Xogito.Assignment.Utilities.RunningCount;
+import com.Xogito.Assignment.Utilities.SingleFlight;
+import com.Xogito.Assignment.Utilities.SparseFields;
+import com.Xogito.Assignment.Utilities.TrigramIndex;
+import com.Xogito.Assignment.Utilities.Views;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validator;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,13 +70,71 @@ import lombok.RequiredArgsConstructor;
  * Implementation of the {@link com.Xogito.Assignment.Services.ProjectService
  * ProjectService} interface with the task of resolving clients's HTTP requests
  * for the {@link com.Xogito.Assignment.Models.Project Project} entity
+ * <p>
+ * Every method runs in its own transaction, read-only unless it writes, so the
+ * connection is only held while the method runs and the returned projects are
+ * detached, holding only the members loaded with them. The lookups answered
+ * from memory or from a cache first don't start one, so a hit never borrows a
+ * connection, and their queries run in the repository's transaction.
+ * <p>
+ * When the users are stored in the user shards, the members are read from them
+ * by the ids in the join table, and the projects are returned as copies holding
+ * those members.
  */
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ProjectServiceImpl implements ProjectService {
 
 	private final ProjectRepository pRepo;
 	private final UserServiceImpl uSrv;
+	private final ObjectMapper mapper;
+	private final Validator validator;
+	private final AssignmentProperties props;
+	private final CacheManager caches;
+	private final TrigramIndex nameIndex = new TrigramIndex();
+	private final PrefixIndex suggestIndex = new PrefixIndex();
+	private final RunningCount total = new RunningCount();
+	private final SingleFlight<Long, Project> withUsersFlights = new SingleFlight<>(CachingConfiguration.PROJECTS);
+
+	private static final List<String> SELECTABLE_FIELDS = List.of("id", "name", "description");
+	private static final List<String> UPDATABLE_FIELDS = List.of("name", "description");
+
+	/**
+	 * Builds the in-memory indexes of the projects' names, and counts the
+	 * projects, once the application is ready. The name searches and the counts
+	 * are resolved by the database until it's done.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void buildIndexes() {
+		total.start();
+		long count = 0;
+		try (Stream<Project> projects = pRepo.streamAll()) {
+			for (Iterator<Project> it = projects.iterator(); it.hasNext(); count++) {
+				index(it.next());
+			}
+		}
+		nameIndex.markReady();
+		total.markReady(count);
+	}
+
+	private void index(Project p) {
+		nameIndex.put(p.getId(), p.getName());
+		suggestIndex.put(p.getId(), p.getName());
+	}
+
+	/**
+	 * Indexes a created or renamed project, once its transaction commits.
+	 */
+	private void indexWritten(Project p) {
+		Long id = p.getId();
+		String name = p.getName();
+		AfterCommit.run(() -> {
+			nameIndex.put(id, name);
+			suggestIndex.put(id, name);
+		});
+	}
 
 	/**
 	 * Retrieves a chunk of the total projects in the database.
@@ -42,16 +149,120 @@ public class ProjectServiceImpl implements ProjectService {
 	 */
 	@Override
 	public List<Project> findAll(int page, int size) throws ResponseStatusException {
-		Page<Project> projects = pRepo.findAll(PageRequest.of(page, size));
+		return findAll(page, size, Views.coreDataView.class);
+	}
+
+	/**
+	 * Retrieves a chunk of the total projects in the database, without counting
+	 * them, with the fetch plan required by the given view. When the view includes the members, every
+	 * member of the chunk is loaded with a single extra query instead of one
+	 * query per project.
+	 * 
+	 * @param page The current page number from where the projects will be
+	 *             retrieved.
+	 * @param size The size of the current page.
+	 * @param view The {@link com.fasterxml.jackson.annotation.JsonView @JsonView}
+	 *             indicator the projects will be serialized with.
+	 * 
+	 * @return List Retrieved page of projects.
+	 * 
+	 * @throws ResponseStatusException When there are no projects to retrieve.
+	 */
+	@Override
+	public List<Project> findAll(int page, int size, Class<?> view) throws ResponseStatusException {
+		Slice<Project> projects = pRepo.findAllBy(PageRequest.of(page, size));
+		if (projects.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		if (!Views.includesMembers(view)) {
+			return projects.getContent();
+		}
+		if (uSrv.isSharded()) {
+			return withShardedMembers(projects.getContent());
+		}
+		Map<Long, Project> withUsers = pRepo.findWithUsersByIdIn(projects.map(Project::getId).getContent()).stream()
+				.collect(Collectors.toMap(Project::getId, Function.identity()));
+		return projects.map(p -> withUsers.get(p.getId())).getContent();
+	}
+
+	/**
+	 * Retrieves a chunk of the total projects in the database using keyset
+	 * pagination, so deeper chunks cost the same as the first one and no count
+	 * query is issued.
+	 * 
+	 * @param after The id after which the projects will be retrieved - null to
+	 *              start from the first project.
+	 * @param size  The size of the current chunk.
+	 * 
+	 * @return Slice Retrieved chunk of projects ordered by id.
+	 * 
+	 * @throws ResponseStatusException When there are no projects to retrieve.
+	 */
+	@Override
+	public Slice<Project> findAllAfter(Long after, int size) throws ResponseStatusException {
+		Slice<Project> projects = pRepo.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after,
+				PageRequest.of(0, size));
+		if (projects.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		return projects;
+	}
+
+	/**
+	 * Retrieves only the given fields of a chunk of the total projects in the
+	 * database, ordered by id, selecting just their columns.
+	 * 
+	 * @param page   The current page number from where the projects will be
+	 *               retrieved.
+	 * @param size   The size of the current page.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return List The values of every retrieved project by field.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, or when
+	 *                                 there are no projects to retrieve.
+	 */
+	@Override
+	public List<Map<String, Object>> findAll(int page, int size, List<String> fields) throws ResponseStatusException {
+		List<Map<String, Object>> projects = pRepo.findFields(SparseFields.parse(fields, SELECTABLE_FIELDS), null, null,
+				page * size, size);
 		if (projects.isEmpty()) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
 		}
-		return projects.getContent();
+		return projects;
+	}
+
+	/**
+	 * Retrieves only the given fields of a chunk of the total projects in the
+	 * database using keyset pagination, selecting just their columns.
+	 * 
+	 * @param after  The id after which the projects will be retrieved - null to
+	 *               start from the first project.
+	 * @param size   The size of the current chunk.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return Slice The values of every retrieved project by field, ordered by id.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, or when
+	 *                                 there are no projects to retrieve.
+	 */
+	@Override
+	public Slice<Map<String, Object>> findAllAfter(Long after, int size, List<String> fields)
+			throws ResponseStatusException {
+		List<Map<String, Object>> projects = pRepo.findFields(SparseFields.parse(fields, SELECTABLE_FIELDS), null,
+				after == null ? 0L : after, 0, size + 1);
+		if (projects.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		boolean hasNext = projects.size() > size;
+		return new SliceImpl<>(hasNext ? projects.subList(0, size) : projects, PageRequest.of(0, size), hasNext);
 	}
 
 	/**
 	 * Retrieves a chunk of the total projects in the database with a matching name
-	 * value.
+	 * value. Queries of at least three characters are answered by the in-memory
+	 * trigram index, ordered by id, and only the matching page is loaded from the
+	 * database; shorter ones are resolved by the database.
 	 * 
 	 * @param name The name value which will be used to retrieve projects.
 	 * @param page The current page number from where the projects will be
@@ -65,12 +276,100 @@ public class ProjectServiceImpl implements ProjectService {
 	 */
 	@Override
 	public List<Project> findAllByName(String name, int page, int size) throws ResponseStatusException {
-		Page<Project> projects = pRepo.findByNameContainingIgnoreCase(name, PageRequest.of(page, size));
+		List<Project> projects;
+		if (nameIndex.canSearch(name)) {
+			List<Long> ids = nameIndex.search(name, page, size);
+			Map<Long, Project> found = pRepo.findAllById(ids).stream()
+					.collect(Collectors.toMap(Project::getId, Function.identity()));
+			projects = ids.stream().map(found::get).filter(Objects::nonNull).toList();
+		} else {
+			projects = pRepo.findByNameContainingIgnoreCase(name, PageRequest.of(page, size)).getContent();
+		}
 		if (projects.isEmpty()) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND,
 					"There are no results to show with the value: '" + name + "'.");
 		}
-		return projects.getContent();
+		return projects;
+	}
+
+	/**
+	 * Retrieves only the given fields of a chunk of the projects with a matching
+	 * name value, selecting just their columns, in the same way as
+	 * {@link #findAllByName(String, int, int)}.
+	 * 
+	 * @param name   The name value which will be used to retrieve projects.
+	 * @param page   The current page number from where the projects will be
+	 *               retrieved.
+	 * @param size   The size of the current page.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return List The values of every matching project by field, ordered by id.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, or when
+	 *                                 there are no matching projects to
+	 *                                 retrieve.
+	 */
+	@Override
+	public List<Map<String, Object>> findAllByName(String name, int page, int size, List<String> fields)
+			throws ResponseStatusException {
+		List<String> selected = SparseFields.parse(fields, SELECTABLE_FIELDS);
+		List<Map<String, Object>> projects;
+		if (nameIndex.canSearch(name)) {
+			List<Long> ids = nameIndex.search(name, page, size);
+			projects = ids.isEmpty() ? List.of() : pRepo.findFields(selected, ids, null, 0, ids.size());
+		} else {
+			projects = pRepo.findFieldsByName(selected, name, page * size, size);
+		}
+		if (projects.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+					"There are no results to show with the value: '" + name + "'.");
+		}
+		return projects;
+	}
+
+	/**
+	 * Retrieves the total number of projects in the database, maintained in memory
+	 * by the writes once the indexes are built.
+	 * 
+	 * @return long The number of projects.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public long count() {
+		return total.get(pRepo::count);
+	}
+
+	/**
+	 * Retrieves the number of projects in the database with a matching name value.
+	 * It's cached for a short time per search, ignoring the case, and resolved
+	 * by the in-memory trigram index when the search can use it.
+	 * 
+	 * @param name The name value which will be used to count projects.
+	 * 
+	 * @return long The number of matching projects.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	@Cacheable(cacheNames = CachingConfiguration.PROJECT_NAME_COUNTS, key = "#name.toLowerCase()")
+	public long countByName(String name) {
+		return nameIndex.canSearch(name) ? nameIndex.count(name) : pRepo.countByNameContainingIgnoreCase(name);
+	}
+
+	/**
+	 * Retrieves the first projects, ordered by name, whose name starts with the
+	 * given prefix ignoring the case. The projects are resolved by an in-memory
+	 * index without reaching the database.
+	 * 
+	 * @param prefix The typed prefix.
+	 * @param limit  The maximum number of projects to retrieve.
+	 * 
+	 * @return List The id and name of every matching project - empty when no
+	 *         project matches.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public List<Suggestion> suggest(String prefix, int limit) {
+		return suggestIndex.search(prefix, limit);
 	}
 
 	/**
@@ -85,9 +384,335 @@ public class ProjectServiceImpl implements ProjectService {
 	 */
 	@Override
 	public Project findById(Long id) throws ResponseStatusException {
-		Optional<Project> p = pRepo.findById(id);
-		return p.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-				"There are no projects with the id: '" + id + "'."));
+		return findById(id, Views.coreDataView.class);
+	}
+
+	/**
+	 * Retrieves a single project with a matching Id value, loading its members
+	 * in the same query only when the given view serializes them. Projects loaded
+	 * with their members are cached until they, or one of their members, are
+	 * updated or removed, and concurrent lookups of an uncached one share a single
+	 * query, which reads the primary database outside of the caller's
+	 * transaction, so the cache never holds a project older than its last write.
+	 * 
+	 * @param id   The value which will be used to retrieve the project.
+	 * @param view The {@link com.fasterxml.jackson.annotation.JsonView @JsonView}
+	 *             indicator the project will be serialized with.
+	 *
+	 * @return Project The matching project.
+	 * 
+	 * @throws ResponseStatusException When there is no matching project to
+	 *                                 retrieve.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	@Cacheable(cacheNames = CachingConfiguration.PROJECTS, key = "#id", condition = "T(com.Xogito.Assignment.Utilities.Views).includesMembers(#view)")
+	public Project findById(Long id, Class<?> view) throws ResponseStatusException {
+		if (Views.includesMembers(view)) {
+			return withUsersFlights.load(id, () -> ReplicaRoutingDataSource.onPrimary(() -> uSrv.isSharded()
+					? withShardedMembers(List.of(pRepo.findById(id).orElseThrow(() -> notFound(id)))).get(0)
+					: pRepo.findWithUsersById(id).orElseThrow(() -> notFound(id))));
+		}
+		return pRepo.findById(id).orElseThrow(() -> notFound(id));
+	}
+
+	/**
+	 * Retrieves a single project with a matching Id value along with, at most,
+	 * its first members ordered by id. The returned project is a detached copy,
+	 * so the cached projects always keep every member.
+	 * 
+	 * @param id           The value which will be used to retrieve the project.
+	 * @param membersLimit The maximum number of members to embed.
+	 *
+	 * @return Project The matching project.
+	 * 
+	 * @throws ResponseStatusException When there is no matching project to
+	 *                                 retrieve.
+	 */
+	@Override
+	public Project findById(Long id, int membersLimit) throws ResponseStatusException {
+		Project p = findById(id, Views.coreDataView.class);
+		Project copy = new Project(p.getId(), p.getName(), p.getDescription(),
+				new LinkedHashSet<>(membersOf(id, null, membersLimit).getContent()));
+		copy.setVersion(p.getVersion());
+		return copy;
+	}
+
+	/**
+	 * Retrieves the projects with the given ids, without their members. The
+	 * projects cached along with their members are served first and the rest are
+	 * loaded with one query per chunk of {@code assignment.jdbc.in-clause-size}
+	 * ids.
+	 * 
+	 * @param ids The ids of the projects to retrieve, possibly repeated.
+	 * 
+	 * @return MultiGetResult The projects in the requested order, null for the
+	 *         ids without a project, along with those ids.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public MultiGetResult<Project> findAllById(List<Long> ids) {
+		return MultiGet.resolve(ids, caches.getCache(CachingConfiguration.PROJECTS), Project.class, Project::getId,
+				pRepo::findAllById, props.getJdbc().getInClauseSize(), false);
+	}
+
+	/**
+	 * Retrieves only the given fields of the projects with the given ids,
+	 * selecting just their columns with one query per chunk of
+	 * {@code assignment.jdbc.in-clause-size} ids.
+	 * 
+	 * @param ids    The ids of the projects to retrieve, possibly repeated.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return MultiGetResult The values of every project by field in the
+	 *         requested order, null for the ids without a project, along with
+	 *         those ids.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected.
+	 */
+	@Override
+	public MultiGetResult<Map<String, Object>> findAllById(List<Long> ids, List<String> fields)
+			throws ResponseStatusException {
+		List<String> selected = SparseFields.parse(fields, SELECTABLE_FIELDS);
+		return MultiGet.<Map<String, Object>>resolve(ids, null, null, p -> (Long) p.get("id"),
+				chunk -> pRepo.findFields(selected, List.copyOf(chunk), null, 0, chunk.size()),
+				props.getJdbc().getInClauseSize(), false);
+	}
+
+	/**
+	 * Retrieves a chunk of the members of a project using keyset pagination over
+	 * the join table, without loading the project nor its other members.
+	 * 
+	 * @param id    The id of the project.
+	 * @param after The id after which the members will be retrieved - null to
+	 *              start from the first member.
+	 * @param size  The size of the current chunk.
+	 * 
+	 * @return Slice Retrieved chunk of members ordered by id.
+	 * 
+	 * @throws ResponseStatusException When there is no matching project, or no
+	 *                                 members to retrieve.
+	 */
+	@Override
+	public Slice<User> findMembers(Long id, Long after, int size) throws ResponseStatusException {
+		Slice<User> members = membersOf(id, after, size);
+		if (members.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		return members;
+	}
+
+	/**
+	 * Retrieves a chunk of the projects a user belongs to using keyset pagination
+	 * over the join table, so every chunk costs the same regardless of the total
+	 * number of projects.
+	 * 
+	 * @param userId The id of the user.
+	 * @param after  The id after which the projects will be retrieved - null to
+	 *               start from the first project.
+	 * @param size   The size of the current chunk.
+	 * 
+	 * @return Slice Retrieved chunk of projects ordered by id.
+	 * 
+	 * @throws ResponseStatusException When there is no matching user, or no
+	 *                                 projects to retrieve.
+	 */
+	@Override
+	public Slice<Project> findAllByMember(Long userId, Long after, int size) throws ResponseStatusException {
+		Slice<Project> projects = pRepo.findByMember(userId, after == null ? 0L : after, PageRequest.of(0, size));
+		if (projects.isEmpty()) {
+			uSrv.findById(userId);
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		return projects;
+	}
+
+	/**
+	 * Retrieves only the given fields of a chunk of the members of a project
+	 * using keyset pagination over the join table, selecting just the columns of
+	 * the members.
+	 * 
+	 * @param id     The id of the project.
+	 * @param after  The id after which the members will be retrieved - null to
+	 *               start from the first member.
+	 * @param size   The size of the current chunk.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return Slice The values of every retrieved member by field, ordered by id.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, when there
+	 *                                 is no matching project, or no members to
+	 *                                 retrieve.
+	 */
+	@Override
+	public Slice<Map<String, Object>> findMembers(Long id, Long after, int size, List<String> fields)
+			throws ResponseStatusException {
+		Slice<Long> ids = pRepo.findMemberIds(id, after == null ? 0L : after, PageRequest.of(0, size));
+		List<Map<String, Object>> members = uSrv.findAllById(ids.getContent(), fields).getResults().stream()
+				.filter(Objects::nonNull).toList();
+		if (members.isEmpty()) {
+			if (!pRepo.existsById(id)) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+						"There are no projects with the id: '" + id + "'.");
+			}
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		return new SliceImpl<>(members, ids.getPageable(), ids.hasNext());
+	}
+
+	/**
+	 * Retrieves only the given fields of a chunk of the projects a user belongs
+	 * to using keyset pagination over the join table, selecting just the columns
+	 * of the projects.
+	 * 
+	 * @param userId The id of the user.
+	 * @param after  The id after which the projects will be retrieved - null to
+	 *               start from the first project.
+	 * @param size   The size of the current chunk.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return Slice The values of every retrieved project by field, ordered by
+	 *         id.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, when there
+	 *                                 is no matching user, or no projects to
+	 *                                 retrieve.
+	 */
+	@Override
+	public Slice<Map<String, Object>> findAllByMember(Long userId, Long after, int size, List<String> fields)
+			throws ResponseStatusException {
+		List<String> selected = SparseFields.parse(fields, SELECTABLE_FIELDS);
+		Slice<Long> ids = pRepo.findIdsByMember(userId, after == null ? 0L : after, PageRequest.of(0, size));
+		if (ids.isEmpty()) {
+			uSrv.findById(userId);
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		return new SliceImpl<>(pRepo.findFields(selected, ids.getContent(), null, 0, ids.getNumberOfElements()),
+				ids.getPageable(), ids.hasNext());
+	}
+
+	private Slice<User> membersOf(Long id, Long after, int size) throws ResponseStatusException {
+		Slice<User> members;
+		if (uSrv.isSharded()) {
+			Slice<Long> ids = pRepo.findMemberIds(id, after == null ? 0L : after, PageRequest.of(0, size));
+			members = new SliceImpl<>(
+					uSrv.findAllById(ids.getContent()).getResults().stream().filter(Objects::nonNull).toList(),
+					ids.getPageable(), ids.hasNext());
+		} else {
+			members = pRepo.findMembers(id, after == null ? 0L : after, PageRequest.of(0, size));
+		}
+		if (members.isEmpty() && !pRepo.existsById(id)) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no projects with the id: '" + id + "'.");
+		}
+		return members;
+	}
+
+	/**
+	 * Retrieves the entity tag of a project with a matching Id value, without
+	 * loading the project nor its members.
+	 * 
+	 * @param id The value which will be used to retrieve the project.
+	 *
+	 * @return String The quoted entity tag of the project.
+	 * 
+	 * @throws ResponseStatusException When there is no matching project.
+	 */
+	@Override
+	public String findETag(Long id) throws ResponseStatusException {
+		return ETags.of(findVersions(id));
+	}
+
+	/**
+	 * Retrieves the version of a project along with the number and versions of
+	 * its members, without loading the project nor its members.
+	 * 
+	 * @param id The value which will be used to retrieve the project.
+	 *
+	 * @return ProjectVersions The versions of the project.
+	 * 
+	 * @throws ResponseStatusException When there is no matching project.
+	 */
+	@Override
+	public ProjectVersions findVersions(Long id) throws ResponseStatusException {
+		ProjectVersions versions = pRepo.findVersionsById(id).orElseThrow(() -> new ResponseStatusException(
+				HttpStatus.NOT_FOUND, "There are no projects with the id: '" + id + "'."));
+		if (!uSrv.isSharded()) {
+			return versions;
+		}
+		List<User> members = shardedMembers(List.of(id)).getOrDefault(id, List.of());
+		return new MemberVersions(versions.getVersion(), (long) members.size(),
+				members.stream().mapToLong(User::getVersion).sum());
+	}
+
+	/**
+	 * Reads the members of the given projects from the user shards, by the ids in
+	 * the join table, ordered by id and grouped by project.
+	 */
+	private Map<Long, List<User>> shardedMembers(Collection<Long> projectIds) {
+		List<ProjectMember> memberships = pRepo.findMemberships(projectIds);
+		List<User> users = uSrv.findAllById(memberships.stream().map(ProjectMember::getUserId).toList())
+				.getResults();
+		Map<Long, List<User>> members = new HashMap<>();
+		for (int i = 0; i < memberships.size(); i++) {
+			if (users.get(i) != null) {
+				members.computeIfAbsent(memberships.get(i).getProjectId(), k -> new ArrayList<>()).add(users.get(i));
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * Copies the given projects along with their members read from the user
+	 * shards.
+	 */
+	private List<Project> withShardedMembers(List<Project> projects) {
+		Map<Long, List<User>> members = shardedMembers(projects.stream().map(Project::getId).toList());
+		return projects.stream().map(p -> {
+			Project copy = new Project(p.getId(), p.getName(), p.getDescription(),
+					new LinkedHashSet<>(members.getOrDefault(p.getId(), List.of())));
+			copy.setVersion(p.getVersion());
+			return copy;
+		}).toList();
+	}
+
+	/**
+	 * Retrieves only the given fields of a single project with a matching Id
+	 * value, selecting just their columns.
+	 * 
+	 * @param id     The value which will be used to retrieve the project.
+	 * @param fields The requested fields - the id is always included.
+	 *
+	 * @return Map The values of the project by field.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, or when
+	 *                                 there is no matching project to retrieve.
+	 */
+	@Override
+	public Map<String, Object> findById(Long id, List<String> fields) throws ResponseStatusException {
+		List<Map<String, Object>> found = pRepo.findFields(SparseFields.parse(fields, SELECTABLE_FIELDS), List.of(id),
+				null, 0, 1);
+		if (found.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no projects with the id: '" + id + "'.");
+		}
+		return found.get(0);
+	}
+
+	/**
+	 * Writes every project in the database, without its members, to the given
+	 * output as it's read, so the memory used doesn't depend on the number of
+	 * projects.
+	 * 
+	 * @param out    The output the projects are written to.
+	 * @param format The format of the output.
+	 * 
+	 * @throws IOException When the output couldn't be written.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void exportProjects(OutputStream out, DataFormat format) throws IOException {
+		try (Stream<Project> projects = pRepo.streamAll()) {
+			format.write(out, projects, Project.class, Views.coreDataView.class, mapper, "id", "name", "description");
+		}
 	}
 
 	/**
@@ -101,10 +726,13 @@ public class ProjectServiceImpl implements ProjectService {
 	 *                                 used by another project in the database.
 	 */
 	@Override
+	@Transactional
 	public Project create(Project p) throws ResponseStatusException {
 		try {
 			System.out.println(p);
-			pRepo.save(p);
+			pRepo.saveAndFlush(p);
+			indexWritten(p);
+			AfterCommit.run(() -> total.add(1));
 			return p;
 		} catch (DataIntegrityViolationException e) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
@@ -124,18 +752,107 @@ public class ProjectServiceImpl implements ProjectService {
 	 *                                 project with the given id doesn't exists.
 	 */
 	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CachingConfiguration.PROJECTS, key = "#id")
 	public Project update(Long id, Project p) throws ResponseStatusException {
+		return update(id, p, null);
+	}
+
+	/**
+	 * Finds and updates a project in the database, provided it wasn't modified
+	 * since the version the client holds. Only the changed properties are
+	 * written, and the members are neither loaded nor modified.
+	 * 
+	 * @param id      The project's id.
+	 * @param p       The project's new property values.
+	 * @param ifMatch The entity tags the project must match - null to update it
+	 *                unconditionally.
+	 * 
+	 * @return Project The updated project.
+	 * 
+	 * @throws ResponseStatusException When there are no changes to make, when a
+	 *                                 project with the given id doesn't exists or
+	 *                                 when it was modified since the given
+	 *                                 version.
+	 */
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CachingConfiguration.PROJECTS, key = "#id")
+	public Project update(Long id, Project p, String ifMatch) throws ResponseStatusException {
+		return update(id, FieldDiff.valuesOf(p, UPDATABLE_FIELDS), ifMatch);
+	}
+
+	/**
+	 * Finds and partially updates a project in the database, provided it wasn't
+	 * modified since the version the client holds. Only the sent properties are
+	 * compared and only the changed ones are written.
+	 * 
+	 * @param id      The project's id.
+	 * @param fields  The JSON object with the properties to update.
+	 * @param ifMatch The entity tags the project must match - null to update it
+	 *                unconditionally.
+	 * 
+	 * @return Project The updated project, without its members.
+	 * 
+	 * @throws ResponseStatusException When a sent property can't be updated or is
+	 *                                 invalid, when there are no changes to make,
+	 *                                 when a project with the given id doesn't
+	 *                                 exists or when it was modified since the
+	 *                                 given version.
+	 */
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CachingConfiguration.PROJECTS, key = "#id")
+	public Project patch(Long id, JsonNode fields, String ifMatch) throws ResponseStatusException {
+		return update(id, FieldDiff.read(fields, Project.class, UPDATABLE_FIELDS, mapper, validator), ifMatch);
+	}
+
+	private Project update(Long id, Map<String, Object> values, String ifMatch) throws ResponseStatusException {
+		Long version = null;
+		if (ifMatch != null) {
+			ProjectVersions versions = findVersions(id);
+			ETags.checkMatch(ifMatch, ETags.of(versions));
+			version = versions.getVersion();
+		}
 		Project ogP = findById(id);
-		p.setId(id);
-		if (p.equals(ogP)) {
+		Map<String, Object> changes = FieldDiff.diff(ogP, values);
+		if (changes.isEmpty()) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "There are no changes to make on this project");
 		}
-		pRepo.save(p);
+		if (version == null) {
+			version = ogP.getVersion();
+		}
+		int updated;
+		try {
+			// only applies while the project still holds the version checked above
+			updated = pRepo.updateFields(id, version, changes);
+		} catch (DataIntegrityViolationException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"The project name '" + changes.get("name") + "' is not available.");
+		}
+		if (updated == 0) {
+			throw modifiedConcurrently(id);
+		}
+		// the bulk update bypasses the persistence context, so the returned project
+		// is a copy of ogP with the written values
+		Project p = new Project(id, ogP.getName(), ogP.getDescription(), null);
+		p.setVersion(version + 1);
+		FieldDiff.apply(p, changes);
+		String ogName = ogP.getName();
+		AfterCommit.run(() -> suggestIndex.remove(id, ogName));
+		indexWritten(p);
 		return p;
 	}
 
 	/**
-	 * Assigns a user to a project in the database.
+	 * Assigns a user to a project in the database. The membership is written with
+	 * a single conditional insert into the join table, along with the project's
+	 * new version in the same transaction, so the current members are never
+	 * loaded to check for duplicates. The version update locks the project's row
+	 * until the transaction commits, so the assignments to the same project are
+	 * serialized for that short transaction. The join table's unique constraint
+	 * settles the concurrent assignments of the same user that got past the
+	 * conditional insert: the losing ones are reported as already assigned.
 	 * 
 	 * @param pId   The project's id.
 	 * @param email user's email.
@@ -148,16 +865,98 @@ public class ProjectServiceImpl implements ProjectService {
 	 *                                 email doesn't exits.
 	 */
 	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	@CacheEvict(cacheNames = CachingConfiguration.PROJECTS, key = "#pId")
 	public Project assignUser(Long pId, String email) throws ResponseStatusException {
-		Project p = findById(pId);
+		if (!pRepo.existsById(pId)) {
+			throw notFound(pId);
+		}
 		User u = uSrv.findByEmail(email);
-		if (p.getUsers().contains(u)) {
+		int inserted;
+		try {
+			inserted = pRepo.addMember(pId, u.getId());
+		} catch (DataIntegrityViolationException e) {
+			// a concurrent write of the same membership, or a removal of the project or
+			// the user, won: the checks below tell which
+			inserted = 0;
+		}
+		if (inserted > 0) {
+			return findById(pId, Views.fullDataView.class);
+		}
+		if (pRepo.existsByIdAndUsersId(pId, u.getId())) {
 			throw new ResponseStatusException(HttpStatus.CONFLICT,
 					"The selected user is already assigned to this project.");
 		}
-		p.getUsers().add(u);
-		pRepo.save(p);
-		return p;
+		if (!pRepo.existsById(pId)) {
+			throw notFound(pId);
+		}
+		throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no users with the email: '" + email + "'.");
+	}
+
+	/**
+	 * Adds and removes a group of users to and from a project in the database.
+	 * The users are resolved with a single query and the join table rows are
+	 * written in JDBC batches, removals first and additions afterwards. The
+	 * additions raced by a concurrent batch are reported as already assigned.
+	 * 
+	 * @param pId   The project's id.
+	 * @param batch The emails or ids of the users to add and remove.
+	 * 
+	 * @return List The outcome of every entry - removals first, each group in the
+	 *         received order.
+	 * 
+	 * @throws ResponseStatusException When a project with the given id doesn't
+	 *                                 exists, when there are no users to add or
+	 *                                 remove, or when the additions keep racing
+	 *                                 concurrent ones.
+	 */
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CachingConfiguration.PROJECTS, key = "#pId")
+	public List<MembershipResult> updateMembers(Long pId, MembershipBatch batch) throws ResponseStatusException {
+		List<String> add = batch.getAdd() == null ? List.of() : batch.getAdd();
+		List<String> remove = batch.getRemove() == null ? List.of() : batch.getRemove();
+		if (add.isEmpty() && remove.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "There are no users to add or remove.");
+		}
+		if (!pRepo.existsById(pId)) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no projects with the id: '" + pId + "'.");
+		}
+		Map<String, Long> ids = uSrv.findIds(Stream.concat(add.stream(), remove.stream()).toList());
+		List<MembershipResult> results = new ArrayList<>();
+		try {
+			results.addAll(writeMembers(remove, ids, Operation.REMOVE, userIds -> pRepo.removeUsers(pId, userIds)));
+			results.addAll(writeMembers(add, ids, Operation.ADD, userIds -> pRepo.addUsers(pId, userIds)));
+			if (results.stream().anyMatch(r -> r.getStatus() == Status.ADDED || r.getStatus() == Status.REMOVED)) {
+				pRepo.bumpVersion(pId);
+			}
+		} catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+			// the database gave up on the batch for a concurrent one, so nothing was
+			// written and the client may send it again
+			throw new ResponseStatusException(HttpStatus.CONFLICT,
+					"The members of the project with the id: '" + pId + "' were modified concurrently.");
+		}
+		return results;
+	}
+
+	private List<MembershipResult> writeMembers(List<String> users, Map<String, Long> ids, Operation operation,
+			Function<List<Long>, int[]> write) {
+		List<Long> found = users.stream().map(ids::get).filter(Objects::nonNull).toList();
+		int[] rows = found.isEmpty() ? new int[0] : write.apply(found);
+		List<MembershipResult> results = new ArrayList<>(users.size());
+		int i = 0;
+		for (String user : users) {
+			Status status;
+			if (!ids.containsKey(user)) {
+				status = Status.NOT_FOUND;
+			} else if (rows[i++] == 0) {
+				status = operation == Operation.ADD ? Status.ALREADY_ASSIGNED : Status.NOT_ASSIGNED;
+			} else {
+				status = operation == Operation.ADD ? Status.ADDED : Status.REMOVED;
+			}
+			results.add(new MembershipResult(user, operation, status));
+		}
+		return results;
 	}
 
 	/**
@@ -172,9 +971,120 @@ public class ProjectServiceImpl implements ProjectService {
 	 *                                 id doesn't exists
 	 */
 	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CachingConfiguration.PROJECTS, key = "#id")
 	public Project remove(Long id) throws ResponseStatusException {
+		return remove(id, null);
+	}
+
+	/**
+	 * removes a project in the database, provided it wasn't modified since the
+	 * version the client holds. The project's memberships and the project are
+	 * deleted by id with one statement each, in a single transaction, without
+	 * loading the members.
+	 * 
+	 * @param id      The project's id.
+	 * @param ifMatch The entity tags the project must match - null to remove it
+	 *                unconditionally.
+	 * 
+	 * @return The removed project.
+	 * 
+	 * @throws ResponseStatusException When a project with the given id doesn't
+	 *                                 exists or when it was modified since the
+	 *                                 given version.
+	 */
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CachingConfiguration.PROJECTS, key = "#id")
+	public Project remove(Long id, String ifMatch) throws ResponseStatusException {
+		Long version = null;
+		if (ifMatch != null) {
+			ProjectVersions versions = findVersions(id);
+			ETags.checkMatch(ifMatch, ETags.of(versions));
+			version = versions.getVersion();
+		}
 		Project p = findById(id);
-		pRepo.delete(p);
+		pRepo.deleteMemberships(List.of(id));
+		if (version == null) {
+			pRepo.deleteAllByIdInBatch(List.of(id));
+		} else if (pRepo.deleteByIdAndVersion(id, version) == 0) {
+			throw modifiedConcurrently(id);
+		}
+		unindex(p);
 		return p;
 	}
+
+	/**
+	 * removes a group of projects in the database in a single transaction. Their
+	 * memberships and the projects are deleted with one statement each, and
+	 * nothing is deleted when one of the projects doesn't exist.
+	 * 
+	 * @param ids The projects' ids.
+	 * 
+	 * @return List The removed projects ordered by id, without their members.
+	 * 
+	 * @throws ResponseStatusException When there is no project with one of the
+	 *                                 given ids.
+	 */
+	@Override
+	@Transactional
+	public List<Project> removeAll(Collection<Long> ids) throws ResponseStatusException {
+		Set<Long> unique = new LinkedHashSet<>(ids);
+		List<Project> projects = new ArrayList<>(pRepo.findAllById(unique));
+		if (projects.size() < unique.size()) {
+			projects.forEach(p -> unique.remove(p.getId()));
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+					"There are no projects with the ids: " + unique + ".");
+		}
+		pRepo.deleteMemberships(unique);
+		pRepo.deleteAllByIdInBatch(unique);
+		Cache cached = caches.getCache(CachingConfiguration.PROJECTS);
+		projects.forEach(p -> {
+			cached.evict(p.getId());
+			unindex(p);
+		});
+		projects.sort(Comparator.comparing(Project::getId));
+		return projects;
+	}
+
+	private void unindex(Project p) {
+		Long id = p.getId();
+		String name = p.getName();
+		AfterCommit.run(() -> {
+			total.add(-1);
+			nameIndex.remove(id);
+			suggestIndex.remove(id, name);
+		});
+	}
+
+	/**
+	 * Versions of a project whose members are stored in the user shards.
+	 */
+	private record MemberVersions(Long version, Long members, Long membersVersion) implements ProjectVersions {
+
+		@Override
+		public Long getVersion() {
+			return version;
+		}
+
+		@Override
+		public Long getMembers() {
+			return members;
+		}
+
+		@Override
+		public Long getMembersVersion() {
+			return membersVersion;
+		}
+
+	}
+
+	private static ResponseStatusException notFound(Long id) {
+		return new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no projects with the id: '" + id + "'.");
+	}
+
+	private static ResponseStatusException modifiedConcurrently(Long id) {
+		return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+				"The project with the id: '" + id + "' was modified concurrently.");
+	}
 }
@@ -1,18 +1,65 @@
 package com.Xogito.Assignment.Implementations;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.Xogito.Assignment.Configurations.AssignmentProperties;
+import com.Xogito.Assignment.Configurations.CachingConfiguration;
+import com.Xogito.Assignment.DTOs.ImportSummary;
+import com.Xogito.Assignment.DTOs.MultiGetResult;
+import com.Xogito.Assignment.DTOs.Suggestion;
 import com.Xogito.Assignment.Models.User;
 import com.Xogito.Assignment.Repositories.UserRepository;
+import com.Xogito.Assignment.Repositories.UserShards;
 import com.Xogito.Assignment.Services.UserService;
+import com.Xogito.Assignment.Utilities.AfterCommit;
+import com.Xogito.Assignment.Utilities.DataFormat;
+import com.Xogito.Assignment.Utilities.ETags;
+import com.Xogito.Assignment.Utilities.FieldDiff;
+import com.Xogito.Assignment.Utilities.MultiGet;
+import com.Xogito.Assignment.Utilities.PrefixIndex;
+import com.Xogito.Assignment.Utilities.ReplicaRoutingDataSource;
+import com.Xogito.Assignment.Utilities.RunningCount;
+import com.Xogito.Assignment.Utilities.SingleFlight;
+import com.Xogito.Assignment.Utilities.SparseFields;
+import com.Xogito.Assignment.Utilities.TrigramIndex;
+import com.Xogito.Assignment.Utilities.Views;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 import lombok.RequiredArgsConstructor;
 
@@ -20,34 +67,179 @@ import lombok.RequiredArgsConstructor;
  * Implementation of the {@link com.Xogito.Assignment.Services.UserService
  * UserService} interface with the task of resolving clients's HTTP requests for
  * the {@link com.Xogito.Assignment.Models.User User} entity
+ * <p>
+ * Every method runs in its own transaction, read-only unless it writes, so the
+ * connection is only held while the method runs. The lookups answered from
+ * memory or from a cache first don't start one, so a hit never borrows a
+ * connection, and their queries run in the repository's transaction.
+ * <p>
+ * When {@code assignment.datasource.user-shards} lists databases, the users
+ * are stored in them through the {@link UserShards} instead of the
+ * repository, which then only holds their memberships.
  */
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
 	private final UserRepository uRepo;
+	private final Validator validator;
+	private final ObjectMapper mapper;
+	private final AssignmentProperties props;
+	private final CacheManager caches;
+	private final UserShards shards;
+	private final TrigramIndex nameIndex = new TrigramIndex();
+	private final PrefixIndex suggestIndex = new PrefixIndex();
+	private final RunningCount total = new RunningCount();
+	private final SingleFlight<Long, User> byIdFlights = new SingleFlight<>(CachingConfiguration.USERS);
+	private final SingleFlight<String, User> byEmailFlights = new SingleFlight<>(CachingConfiguration.USERS_BY_EMAIL);
+
+	private static final List<String> SELECTABLE_FIELDS = List.of("id", "name", "email");
+	private static final List<String> UPDATABLE_FIELDS = List.of("name", "email");
+	private static final String AFTER_HINT = "page with the 'after' cursor";
+
+	/**
+	 * Builds the in-memory indexes of the users' names and emails, and counts the
+	 * users, once the application is ready. The name searches and the counts are
+	 * resolved by the database until it's done.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void buildIndexes() {
+		total.start();
+		long count = 0;
+		try (Stream<User> users = streamAll()) {
+			for (Iterator<User> it = users.iterator(); it.hasNext(); count++) {
+				index(it.next());
+			}
+		}
+		nameIndex.markReady();
+		total.markReady(count);
+	}
+
+	private void index(User u) {
+		nameIndex.put(u.getId(), u.getName());
+		suggestIndex.put(u.getId(), u.getName(), u.getEmail());
+	}
+
+	/**
+	 * Indexes a created or updated user, once its transaction commits.
+	 */
+	private void indexWritten(User u) {
+		Long id = u.getId();
+		String name = u.getName();
+		String email = u.getEmail();
+		AfterCommit.run(() -> {
+			nameIndex.put(id, name);
+			suggestIndex.put(id, name, email);
+		});
+	}
 
 	/**
-	 * Retrieves a chunk of the total users in the database.
+	 * Retrieves a chunk of the total users in the database, without counting
+	 * them.
 	 * 
 	 * @param page The current page number from where the users will be retrieved.
 	 * @param size The size of the current page.
 	 * 
 	 * @return List Retrieved page of users.
 	 * 
-	 * @throws ResponseStatusException When there are no users to retrieve.
+	 * @throws ResponseStatusException When there are no users to retrieve, or
+	 *                                 when the users are sharded and the page
+	 *                                 starts past {@link UserShards#MAX_OFFSET}.
 	 */
 	public List<User> findAll(int page, int size) throws ResponseStatusException {
-		Page<User> users = uRepo.findAll(PageRequest.of(page, size));
+		List<User> users = shards.isEnabled() ? shards.findAll(offset(page, size, AFTER_HINT), size)
+				: uRepo.findAllBy(PageRequest.of(page, size)).getContent();
 		if (users.isEmpty()) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
 		}
-		return users.getContent();
+		return users;
+	}
+
+	/**
+	 * Retrieves a chunk of the total users in the database using keyset
+	 * pagination, so deeper chunks cost the same as the first one and no count
+	 * query is issued.
+	 * 
+	 * @param after The id after which the users will be retrieved - null to start
+	 *              from the first user.
+	 * @param size  The size of the current chunk.
+	 * 
+	 * @return Slice Retrieved chunk of users ordered by id.
+	 * 
+	 * @throws ResponseStatusException When there are no users to retrieve.
+	 */
+	public Slice<User> findAllAfter(Long after, int size) throws ResponseStatusException {
+		if (!shards.isEnabled()) {
+			Slice<User> users = uRepo.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after,
+					PageRequest.of(0, size));
+			if (users.isEmpty()) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+			}
+			return users;
+		}
+		List<User> users = shards.findAllAfter(after == null ? 0L : after, size + 1);
+		if (users.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		boolean hasNext = users.size() > size;
+		return new SliceImpl<>(hasNext ? users.subList(0, size) : users, PageRequest.of(0, size), hasNext);
+	}
+
+	/**
+	 * Retrieves only the given fields of a chunk of the total users in the
+	 * database, ordered by id, selecting just their columns.
+	 * 
+	 * @param page   The current page number from where the users will be
+	 *               retrieved.
+	 * @param size   The size of the current page.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return List The values of every retrieved user by field.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, or when
+	 *                                 there are no users to retrieve.
+	 */
+	public List<Map<String, Object>> findAll(int page, int size, List<String> fields) throws ResponseStatusException {
+		List<Map<String, Object>> users = findFields(SparseFields.parse(fields, SELECTABLE_FIELDS), null, null,
+				offset(page, size, AFTER_HINT), size);
+		if (users.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		return users;
+	}
+
+	/**
+	 * Retrieves only the given fields of a chunk of the total users in the
+	 * database using keyset pagination, selecting just their columns.
+	 * 
+	 * @param after  The id after which the users will be retrieved - null to
+	 *               start from the first user.
+	 * @param size   The size of the current chunk.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return Slice The values of every retrieved user by field, ordered by id.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, or when
+	 *                                 there are no users to retrieve.
+	 */
+	public Slice<Map<String, Object>> findAllAfter(Long after, int size, List<String> fields)
+			throws ResponseStatusException {
+		List<Map<String, Object>> users = findFields(SparseFields.parse(fields, SELECTABLE_FIELDS), null,
+				after == null ? 0L : after, 0, size + 1);
+		if (users.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no results to show.");
+		}
+		boolean hasNext = users.size() > size;
+		return new SliceImpl<>(hasNext ? users.subList(0, size) : users, PageRequest.of(0, size), hasNext);
 	}
 
 	/**
 	 * Retrieves a chunk of the total users in the database with a matching name
-	 * value.
+	 * value. Queries of at least three characters are answered by the in-memory
+	 * trigram index, ordered by id, and only the matching page is loaded from the
+	 * database; shorter ones are resolved by the database.
 	 * 
 	 * @param name The name value which will be used to retrieve users.
 	 * @param page The current page number from where the users will be retrieved.
@@ -58,16 +250,109 @@ public class UserServiceImpl implements UserService {
 	 * @throws ResponseStatusException When there are no matching users to retrieve.
 	 */
 	public List<User> findAllByName(String name, int page, int size) throws ResponseStatusException {
-		Page<User> users = uRepo.findByNameContainingIgnoreCase(name, PageRequest.of(page, size));
+		List<User> users;
+		if (nameIndex.canSearch(name)) {
+			List<Long> ids = nameIndex.search(name, page, size);
+			Map<Long, User> found = loadAllById(ids).stream()
+					.collect(Collectors.toMap(User::getId, Function.identity()));
+			users = ids.stream().map(found::get).filter(Objects::nonNull).toList();
+		} else {
+			users = shards.isEnabled() ? shards.findByNameContaining(name,
+					offset(page, size, "narrow the name down"), size)
+					: uRepo.findByNameContainingIgnoreCase(name, PageRequest.of(page, size)).getContent();
+		}
 		if (users.isEmpty()) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND,
 					"There are no results to show with the value: '" + name + "'.");
 		}
-		return users.getContent();
+		return users;
 	}
 
 	/**
-	 * Retrieves a single user with a matching Id value.
+	 * Retrieves only the given fields of a chunk of the users with a matching name
+	 * value, selecting just their columns, in the same way as
+	 * {@link #findAllByName(String, int, int)}.
+	 * 
+	 * @param name   The name value which will be used to retrieve users.
+	 * @param page   The current page number from where the users will be
+	 *               retrieved.
+	 * @param size   The size of the current page.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return List The values of every matching user by field, ordered by id.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, or when
+	 *                                 there are no matching users to retrieve.
+	 */
+	public List<Map<String, Object>> findAllByName(String name, int page, int size, List<String> fields)
+			throws ResponseStatusException {
+		List<String> selected = SparseFields.parse(fields, SELECTABLE_FIELDS);
+		List<Map<String, Object>> users;
+		if (nameIndex.canSearch(name)) {
+			List<Long> ids = nameIndex.search(name, page, size);
+			users = ids.isEmpty() ? List.of() : findFields(selected, ids, null, 0, ids.size());
+		} else {
+			int offset = offset(page, size, "narrow the name down");
+			users = shards.isEnabled() ? shards.findFieldsByName(selected, name, offset, size)
+					: uRepo.findFieldsByName(selected, name, offset, size);
+		}
+		if (users.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+					"There are no results to show with the value: '" + name + "'.");
+		}
+		return users;
+	}
+
+	/**
+	 * Retrieves the total number of users in the database, maintained in memory
+	 * by the writes once the indexes are built.
+	 * 
+	 * @return long The number of users.
+	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public long count() {
+		return total.get(shards.isEnabled() ? shards::count : uRepo::count);
+	}
+
+	/**
+	 * Retrieves the number of users in the database with a matching name value.
+	 * It's cached for a short time per search, ignoring the case, and resolved
+	 * by the in-memory trigram index when the search can use it.
+	 * 
+	 * @param name The name value which will be used to count users.
+	 * 
+	 * @return long The number of matching users.
+	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
+	@Cacheable(cacheNames = CachingConfiguration.USER_NAME_COUNTS, key = "#name.toLowerCase()")
+	public long countByName(String name) {
+		if (nameIndex.canSearch(name)) {
+			return nameIndex.count(name);
+		}
+		return shards.isEnabled() ? shards.countByNameContaining(name) : uRepo.countByNameContainingIgnoreCase(name);
+	}
+
+	/**
+	 * Retrieves the first users, ordered by the matching value, whose name or
+	 * email starts with the given prefix ignoring the case. The users are
+	 * resolved by an in-memory index without reaching the database.
+	 * 
+	 * @param prefix The typed prefix.
+	 * @param limit  The maximum number of users to retrieve.
+	 * 
+	 * @return List The id of every matching user along with its matching name or
+	 *         email - empty when no user matches.
+	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public List<Suggestion> suggest(String prefix, int limit) {
+		return suggestIndex.search(prefix, limit);
+	}
+
+	/**
+	 * Retrieves a single user with a matching Id value. The user is cached until
+	 * it's updated or removed, and concurrent lookups of an uncached user share a
+	 * single query, which reads the primary database outside of the caller's
+	 * transaction, so the cache never holds a user older than its last write.
 	 * 
 	 * @param id The value which will be used to retrieve the user.
 	 *
@@ -75,14 +360,81 @@ public class UserServiceImpl implements UserService {
 	 * 
 	 * @throws ResponseStatusException When there is no matching user to retrieve.
 	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	@Cacheable(cacheNames = CachingConfiguration.USERS, key = "#id")
 	public User findById(Long id) throws ResponseStatusException {
-		Optional<User> u = uRepo.findById(id);
-		return u.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-				"There are no users with the id: '" + id + "'."));
+		return byIdFlights.load(id, () -> ReplicaRoutingDataSource.onPrimary(
+				() -> shards.isEnabled() ? shards.findById(id) : uRepo.findById(id)).orElseThrow(
+						() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+								"There are no users with the id: '" + id + "'.")));
+	}
+
+	/**
+	 * Retrieves only the given fields of a single user with a matching Id
+	 * value, selecting just their columns.
+	 * 
+	 * @param id     The value which will be used to retrieve the user.
+	 * @param fields The requested fields - the id is always included.
+	 *
+	 * @return Map The values of the user by field.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected, or when
+	 *                                 there is no matching user to retrieve.
+	 */
+	public Map<String, Object> findById(Long id, List<String> fields) throws ResponseStatusException {
+		List<Map<String, Object>> found = findFields(SparseFields.parse(fields, SELECTABLE_FIELDS), List.of(id),
+				null, 0, 1);
+		if (found.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no users with the id: '" + id + "'.");
+		}
+		return found.get(0);
+	}
+
+	/**
+	 * Retrieves the users with the given ids. The cached users are served first
+	 * and the rest are loaded from the primary database, and cached, with one
+	 * query per chunk of {@code assignment.jdbc.in-clause-size} ids.
+	 * 
+	 * @param ids The ids of the users to retrieve, possibly repeated.
+	 * 
+	 * @return MultiGetResult The users in the requested order, null for the ids
+	 *         without a user, along with those ids.
+	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public MultiGetResult<User> findAllById(List<Long> ids) {
+		return MultiGet.resolve(ids, caches.getCache(CachingConfiguration.USERS), User.class, User::getId,
+				chunk -> ReplicaRoutingDataSource.onPrimary(() -> loadAllById(chunk)), props.getJdbc().getInClauseSize(),
+				true);
+	}
+
+	/**
+	 * Retrieves only the given fields of the users with the given ids, selecting
+	 * just their columns with one query per chunk of
+	 * {@code assignment.jdbc.in-clause-size} ids. The cached users are not used,
+	 * since they hold every field.
+	 * 
+	 * @param ids    The ids of the users to retrieve, possibly repeated.
+	 * @param fields The requested fields - the id is always included.
+	 * 
+	 * @return MultiGetResult The values of every user by field in the requested
+	 *         order, null for the ids without a user, along with those ids.
+	 * 
+	 * @throws ResponseStatusException When a field can't be selected.
+	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public MultiGetResult<Map<String, Object>> findAllById(List<Long> ids, List<String> fields)
+			throws ResponseStatusException {
+		List<String> selected = SparseFields.parse(fields, SELECTABLE_FIELDS);
+		return MultiGet.<Map<String, Object>>resolve(ids, null, null, u -> (Long) u.get("id"),
+				chunk -> findFields(selected, List.copyOf(chunk), null, 0, chunk.size()),
+				props.getJdbc().getInClauseSize(), false);
 	}
 
 	/**
-	 * Retrieves a single user with a matching email value.
+	 * Retrieves a single user with a matching email value. The user is cached
+	 * until it's updated or removed, and concurrent lookups of an uncached user
+	 * share a single query, which reads the primary database outside of the
+	 * caller's transaction.
 	 * 
 	 * @param email The value which will be used to retrieve the user.
 	 *
@@ -90,10 +442,49 @@ public class UserServiceImpl implements UserService {
 	 * 
 	 * @throws ResponseStatusException When there is no matching user to retrieve.
 	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	@Cacheable(cacheNames = CachingConfiguration.USERS_BY_EMAIL, key = "#email")
 	public User findByEmail(String email) throws ResponseStatusException {
-		Optional<User> u = uRepo.findByEmail(email);
-		return u.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-				"There are no users with the email: '" + email + "'."));
+		return byEmailFlights.load(email, () -> ReplicaRoutingDataSource.onPrimary(
+				() -> shards.isEnabled() ? shards.findByEmail(email) : uRepo.findByEmail(email)).orElseThrow(
+						() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+								"There are no users with the email: '" + email + "'.")));
+	}
+
+	/**
+	 * Resolves the ids of a group of users referenced either by their email or by
+	 * their id with a single query.
+	 * 
+	 * @param users The emails or ids of the users.
+	 * 
+	 * @return Map The id of every existing user, keyed by the given reference.
+	 */
+	public Map<String, Long> findIds(Collection<String> users) {
+		Set<String> emails = new HashSet<>();
+		Set<Long> ids = new HashSet<>();
+		users.forEach(ref -> {
+			if (ref.isEmpty() || !ref.chars().allMatch(Character::isDigit)) {
+				emails.add(ref);
+			} else {
+				try {
+					ids.add(Long.valueOf(ref));
+				} catch (NumberFormatException e) {
+					// no user has an id beyond the range of a long
+				}
+			}
+		});
+		Map<String, Long> found = new HashMap<>();
+		List<User> existing = shards.isEnabled() ? shards.findByEmailInOrIdIn(emails, ids)
+				: uRepo.findByEmailInOrIdIn(emails, ids);
+		existing.forEach(u -> {
+			if (emails.contains(u.getEmail())) {
+				found.put(u.getEmail(), u.getId());
+			}
+			if (ids.contains(u.getId())) {
+				found.put(String.valueOf(u.getId()), u.getId());
+			}
+		});
+		return found;
 	}
 
 	/**
@@ -106,9 +497,16 @@ public class UserServiceImpl implements UserService {
 	 * @throws ResponseStatusException When the new user's name is already being
 	 *                                 used by another user in the database.
 	 */
+	@Transactional
 	public User create(User u) throws ResponseStatusException {
 		try {
-			uRepo.save(u);
+			if (shards.isEnabled()) {
+				shards.insert(u);
+			} else {
+				uRepo.saveAndFlush(u);
+			}
+			indexWritten(u);
+			AfterCommit.run(() -> total.add(1));
 			return u;
 		} catch (DataIntegrityViolationException e) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
@@ -116,6 +514,104 @@ public class UserServiceImpl implements UserService {
 		}
 	}
 
+	/**
+	 * Imports the users of a streamed NDJSON or CSV body. Every row is validated
+	 * with the user's constraints and the valid ones are inserted in chunks of
+	 * {@code assignment.jdbc.batch-size} rows, each one written with JDBC batching
+	 * in its own transaction, so no connection is held while the body is read.
+	 * 
+	 * @param body   The streamed body - one user per line.
+	 * @param format The format of the body.
+	 * 
+	 * @return ImportSummary The number of inserted users along with the
+	 *         duplicate and invalid rows.
+	 * 
+	 * @throws ResponseStatusException When the body can't be read.
+	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public ImportSummary importUsers(InputStream body, DataFormat format) throws ResponseStatusException {
+		ImportSummary summary = new ImportSummary();
+		List<User> chunk = new ArrayList<>();
+		try {
+			format.read(body, User.class, mapper, (line, u, error) -> {
+				if (error != null) {
+					summary.addInvalid(line, Map.of("record", error));
+					return;
+				}
+				Set<ConstraintViolation<User>> violations = validator.validate(u);
+				if (!violations.isEmpty()) {
+					summary.addInvalid(line, violations.stream().collect(
+							Collectors.toMap(v -> v.getPropertyPath().toString(), ConstraintViolation::getMessage, (a, b) -> a)));
+					return;
+				}
+				u.setId(null);
+				chunk.add(u);
+				if (chunk.size() >= props.getJdbc().getBatchSize()) {
+					insertChunk(chunk, summary);
+					chunk.clear();
+				}
+			});
+		} catch (IOException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The imported body could not be read.");
+		}
+		insertChunk(chunk, summary);
+		return summary;
+	}
+
+	private void insertChunk(List<User> chunk, ImportSummary summary) {
+		Map<String, User> users = new LinkedHashMap<>();
+		chunk.forEach(u -> {
+			if (users.putIfAbsent(u.getEmail(), u) != null) {
+				summary.addDuplicate(u.getEmail());
+			}
+		});
+		if (users.isEmpty()) {
+			return;
+		}
+		List<String> taken = shards.isEnabled() ? shards.findExistingEmails(users.keySet())
+				: uRepo.findExistingEmails(users.keySet());
+		taken.forEach(email -> {
+			users.remove(email);
+			summary.addDuplicate(email);
+		});
+		try {
+			insertAll(new ArrayList<>(users.values()));
+			users.values().forEach(this::indexWritten);
+			int inserted = users.size();
+			AfterCommit.run(() -> total.add(inserted));
+			summary.addInserted(inserted);
+		} catch (DataIntegrityViolationException e) {
+			// a concurrent write took one of the emails, so the users are inserted one by one
+			users.values().forEach(u -> {
+				u.setId(null);
+				try {
+					insertAll(List.of(u));
+					indexWritten(u);
+					AfterCommit.run(() -> total.add(1));
+					summary.addInserted(1);
+				} catch (DataIntegrityViolationException ex) {
+					summary.addDuplicate(u.getEmail());
+				}
+			});
+		}
+	}
+
+	/**
+	 * Writes every user in the database to the given output as it's read, so
+	 * the memory used doesn't depend on the number of users.
+	 * 
+	 * @param out    The output the users are written to.
+	 * @param format The format of the output.
+	 * 
+	 * @throws IOException When the output couldn't be written.
+	 */
+	@Transactional(readOnly = true)
+	public void exportUsers(OutputStream out, DataFormat format) throws IOException {
+		try (Stream<User> users = streamAll()) {
+			format.write(out, users, User.class, Views.fullDataView.class, mapper, "id", "name", "email");
+		}
+	}
+
 	/**
 	 * Finds and updates a user in the database.
 	 * 
@@ -127,17 +623,81 @@ public class UserServiceImpl implements UserService {
 	 * @throws ResponseStatusException When there are no changes to make or when a
 	 *                                 user with the given id doesn't exists.
 	 */
+	@Transactional
 	public User update(Long id, User u) throws ResponseStatusException {
+		return update(id, u, null);
+	}
+
+	/**
+	 * Finds and updates a user in the database, provided it wasn't modified since
+	 * the version the client holds. Only the changed properties are written.
+	 * 
+	 * @param id      The user's id.
+	 * @param u       The user's new property values.
+	 * @param ifMatch The entity tags the user must match - null to update it
+	 *                unconditionally.
+	 * 
+	 * @return User The updated user.
+	 * 
+	 * @throws ResponseStatusException When there are no changes to make, when a
+	 *                                 user with the given id doesn't exists or
+	 *                                 when it was modified since the given
+	 *                                 version.
+	 */
+	@Transactional
+	public User update(Long id, User u, String ifMatch) throws ResponseStatusException {
+		return update(id, FieldDiff.valuesOf(u, UPDATABLE_FIELDS), ifMatch);
+	}
+
+	/**
+	 * Finds and partially updates a user in the database, provided it wasn't
+	 * modified since the version the client holds. Only the sent properties are
+	 * compared and only the changed ones are written.
+	 * 
+	 * @param id      The user's id.
+	 * @param fields  The JSON object with the properties to update.
+	 * @param ifMatch The entity tags the user must match - null to update it
+	 *                unconditionally.
+	 * 
+	 * @return User The updated user.
+	 * 
+	 * @throws ResponseStatusException When a sent property can't be updated or is
+	 *                                 invalid, when there are no changes to make,
+	 *                                 when a user with the given id doesn't exists
+	 *                                 or when it was modified since the given
+	 *                                 version.
+	 */
+	@Transactional
+	public User patch(Long id, JsonNode fields, String ifMatch) throws ResponseStatusException {
+		return update(id, FieldDiff.read(fields, User.class, UPDATABLE_FIELDS, mapper, validator), ifMatch);
+	}
+
+	private User update(Long id, Map<String, Object> values, String ifMatch) throws ResponseStatusException {
 		User ogU = findById(id);
-		u.setId(id);
-		if (u.equals(ogU)) {
+		ETags.checkMatch(ifMatch, ETags.of(ogU));
+		Map<String, Object> changes = FieldDiff.diff(ogU, values);
+		if (changes.isEmpty()) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "There are no changes to make on this user");
 		}
+		int updated;
 		try {
-			uRepo.save(u);
+			// only applies while the user still holds the version read above
+			updated = shards.isEnabled() ? shards.updateFields(id, ogU.getVersion(), changes)
+					: uRepo.updateFields(id, ogU.getVersion(), changes);
 		} catch (DataIntegrityViolationException e) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "this email address is not available");
 		}
+		if (updated == 0) {
+			throw modifiedConcurrently(id);
+		}
+		// the bulk update bypasses the persistence context, so the returned user is
+		// a copy of ogU with the written values
+		User u = new User(id, ogU.getName(), ogU.getEmail());
+		u.setVersion(ogU.getVersion() + 1);
+		FieldDiff.apply(u, changes);
+		AfterCommit.run(() -> suggestIndex.remove(id, ogU.getName(), ogU.getEmail()));
+		indexWritten(u);
+		evict(ogU);
 		return u;
 	}
 
@@ -152,10 +712,162 @@ public class UserServiceImpl implements UserService {
 	 *                                 the user or when a user with the given id
 	 *                                 doesn't exists
 	 */
+	@Transactional
 	public User remove(Long id) throws ResponseStatusException {
+		return remove(id, null);
+	}
+
+	/**
+	 * removes a user in the database, provided it wasn't modified since the
+	 * version the client holds. The user's memberships and the user are deleted
+	 * by id with one statement each, in a single transaction.
+	 * 
+	 * @param id      The user's id.
+	 * @param ifMatch The entity tags the user must match - null to remove it
+	 *                unconditionally.
+	 * 
+	 * @return The removed user.
+	 * 
+	 * @throws ResponseStatusException When a user with the given id doesn't exists
+	 *                                 or when it was modified since the given
+	 *                                 version.
+	 */
+	@Transactional
+	public User remove(Long id, String ifMatch) throws ResponseStatusException {
 		User u = findById(id);
-		uRepo.delete(u);
+		ETags.checkMatch(ifMatch, ETags.of(u));
+		List<Long> projectIds = uRepo.findProjectIds(List.of(id));
+		uRepo.deleteMemberships(List.of(id));
+		if (ifMatch == null) {
+			deleteAllById(List.of(id));
+		} else if ((shards.isEnabled() ? shards.deleteByIdAndVersion(id, u.getVersion())
+				: uRepo.deleteByIdAndVersion(id, u.getVersion())) == 0) {
+			throw modifiedConcurrently(id);
+		}
+		unindex(List.of(u), projectIds);
 		return u;
 	}
 
+	/**
+	 * removes a group of users in the database in a single transaction. Their
+	 * memberships and the users are deleted with one statement each, and nothing
+	 * is deleted when one of the users doesn't exist.
+	 * 
+	 * @param ids The users' ids.
+	 * 
+	 * @return List The removed users ordered by id.
+	 * 
+	 * @throws ResponseStatusException When there is no user with one of the given
+	 *                                 ids.
+	 */
+	@Transactional
+	public List<User> removeAll(Collection<Long> ids) throws ResponseStatusException {
+		Set<Long> unique = new LinkedHashSet<>(ids);
+		List<User> users = new ArrayList<>(loadAllById(unique));
+		if (users.size() < unique.size()) {
+			users.forEach(u -> unique.remove(u.getId()));
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There are no users with the ids: " + unique + ".");
+		}
+		List<Long> projectIds = uRepo.findProjectIds(unique);
+		uRepo.deleteMemberships(unique);
+		deleteAllById(unique);
+		unindex(users, projectIds);
+		users.sort(Comparator.comparing(User::getId));
+		return users;
+	}
+
+	/**
+	 * Tells whether the users are stored in the user shards, apart from their
+	 * memberships.
+	 */
+	public boolean isSharded() {
+		return shards.isEnabled();
+	}
+
+	private Stream<User> streamAll() {
+		return shards.isEnabled() ? shards.streamAll() : uRepo.streamAll();
+	}
+
+	/**
+	 * @param instead How the users past {@link UserShards#MAX_OFFSET} can be read,
+	 *                for the error message.
+	 * @return The offset of the given page.
+	 * @throws ResponseStatusException When the users are sharded and the page
+	 *                                 starts past {@link UserShards#MAX_OFFSET}.
+	 */
+	private int offset(int page, int size, String instead) throws ResponseStatusException {
+		long offset = (long) page * size;
+		if (shards.isEnabled() && offset > UserShards.MAX_OFFSET) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only the first " + UserShards.MAX_OFFSET
+					+ " users can be read by page number, " + instead + " to read the next ones.");
+		}
+		return (int) offset;
+	}
+
+	private List<Map<String, Object>> findFields(List<String> fields, List<Long> ids, Long after, int offset,
+			int limit) {
+		return shards.isEnabled() ? shards.findFields(fields, ids, after, offset, limit)
+				: uRepo.findFields(fields, ids, after, offset, limit);
+	}
+
+	private List<User> loadAllById(Collection<Long> ids) {
+		return shards.isEnabled() ? shards.findAllById(ids) : uRepo.findAllById(ids);
+	}
+
+	private void insertAll(List<User> users) {
+		if (shards.isEnabled()) {
+			shards.insertAll(users);
+		} else {
+			uRepo.insertAll(users);
+		}
+	}
+
+	private void deleteAllById(Collection<Long> ids) {
+		if (shards.isEnabled()) {
+			shards.deleteAllById(ids);
+		} else {
+			uRepo.deleteAllByIdInBatch(ids);
+		}
+	}
+
+	private void unindex(List<User> users, List<Long> projectIds) {
+		List<User> removed = List.copyOf(users);
+		AfterCommit.run(() -> {
+			removed.forEach(u -> {
+				nameIndex.remove(u.getId());
+				suggestIndex.remove(u.getId(), u.getName(), u.getEmail());
+			});
+			total.add(-removed.size());
+		});
+		evict(users, projectIds);
+	}
+
+	private static ResponseStatusException modifiedConcurrently(Long id) {
+		return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+				"The user with the id: '" + id + "' was modified concurrently.");
+	}
+
+	/**
+	 * Evicts a user from the caches, along with the cached projects listing it as
+	 * a member.
+	 */
+	private void evict(User u) {
+		evict(List.of(u), uRepo.findProjectIds(List.of(u.getId())));
+	}
+
+	/**
+	 * Evicts a group of users from the caches, along with the given projects
+	 * listing them as members.
+	 */
+	private void evict(List<User> users, List<Long> projectIds) {
+		Cache byId = caches.getCache(CachingConfiguration.USERS);
+		Cache byEmail = caches.getCache(CachingConfiguration.USERS_BY_EMAIL);
+		users.forEach(u -> {
+			byId.evict(u.getId());
+			byEmail.evict(u.getEmail());
+		});
+		Cache projects = caches.getCache(CachingConfiguration.PROJECTS);
+		projectIds.forEach(projects::evict);
+	}
+
 }
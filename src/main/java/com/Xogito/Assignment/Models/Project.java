@@ -1,35 +1,62 @@
 package com.Xogito.Assignment.Models;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import com.Xogito.Assignment.Utilities.Views;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonView;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * The project entity Model
  */
 @Entity
+@NamedEntityGraph(name = Project.WITH_USERS, attributeNodes = @NamedAttributeNode("users"))
 @Table(indexes = @Index(columnList = "name", unique = true))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class Project {
 
+	/**
+	 * Fetch plan loading the project together with its members.
+	 */
+	public static final String WITH_USERS = "Project.users";
+
+	/**
+	 * Role of the members collection, naming its second-level cache region.
+	 */
+	public static final String USERS_ROLE = "com.Xogito.Assignment.Models.Project.users";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	@Column(unique = true, updatable = false, nullable = false)
@@ -45,6 +72,29 @@ public class Project {
 	
 	@JsonView(Views.fullDataView.class)
 	@ManyToMany
-	private List<@NotNull(message = "user must not be null") User> users = new ArrayList<>();
-	
+	@JoinTable(name = "project_users", indexes = @Index(name = "ix_project_users_user", columnList = "users_id, project_id"), joinColumns = @JoinColumn(name = "project_id"), inverseJoinColumns = @JoinColumn(name = "users_id"), inverseForeignKey = @ForeignKey(name = "fk_project_users_user"), uniqueConstraints = @UniqueConstraint(name = "uk_project_users", columnNames = {
+			"project_id", "users_id" }))
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+	@BatchSize(size = 50)
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	private Set<@NotNull(message = "user must not be null") User> users = new HashSet<>();
+
+	/**
+	 * Optimistic lock version, also increased whenever the members change.
+	 */
+	@Version
+	@ColumnDefault("0")
+	@Column(nullable = false)
+	@JsonIgnore
+	@EqualsAndHashCode.Exclude
+	private Long version;
+
+	public Project(Long id, String name, String description, Set<User> users) {
+		this.id = id;
+		this.name = name;
+		this.description = description;
+		this.users = users;
+	}
+
 }
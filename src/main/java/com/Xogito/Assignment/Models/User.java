@@ -1,17 +1,26 @@
 package com.Xogito.Assignment.Models;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 /**
@@ -19,12 +28,16 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(indexes = @Index(columnList = "email", unique = true))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
-@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 public class User {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@EqualsAndHashCode.Include
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+	@SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
 	@Column(unique = true, updatable = false, nullable = false)
 	private Long id;
 
@@ -34,4 +47,19 @@ public class User {
 	@NotNull(message = "email must not be null")
 	@Email(message = "email must be a valid email address")
 	private String email;
+
+	/**
+	 * Optimistic lock version.
+	 */
+	@Version
+	@ColumnDefault("0")
+	@Column(nullable = false)
+	@JsonIgnore
+	private Long version;
+
+	public User(Long id, String name, String email) {
+		this.id = id;
+		this.name = name;
+		this.email = email;
+	}
 }
@@ -0,0 +1,37 @@
+package com.Xogito.Assignment.Repositories;
+
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Builds the single {@code UPDATE} statement of a partial update, setting only
+ * the changed columns of a versioned entity.
+ */
+class PartialUpdates {
+
+	private PartialUpdates() {
+	}
+
+	/**
+	 * Updates the given properties of an entity and increases its version,
+	 * provided it still holds the expected version.
+	 *
+	 * @return The number of updated rows - 0 when the entity doesn't exist or its
+	 *         version changed.
+	 */
+	static <T> int execute(EntityManager em, Class<T> type, Long id, Long version, Map<String, Object> changes) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaUpdate<T> update = cb.createCriteriaUpdate(type);
+		Root<T> root = update.from(type);
+		changes.forEach((name, value) -> update.set(root.get(name), value));
+		Path<Long> versionPath = root.get("version");
+		update.set(versionPath, cb.sum(versionPath, 1L));
+		update.where(cb.equal(root.get("id"), id), cb.equal(versionPath, version));
+		return em.createQuery(update).executeUpdate();
+	}
+}
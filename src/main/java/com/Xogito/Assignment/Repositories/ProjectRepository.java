@@ -1,21 +1,134 @@
 package com.Xogito.Assignment.Repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import com.Xogito.Assignment.DTOs.ProjectMember;
+import com.Xogito.Assignment.DTOs.ProjectVersions;
 import com.Xogito.Assignment.Models.Project;
+import com.Xogito.Assignment.Models.User;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository for the {@link com.Xogito.Assignment.Models.Project Project} Entity
+ * <p>
+ * Its queries run in read-only transactions unless they're annotated
+ * otherwise, so they're served by the read replicas when there are any.
  * 
  * @extends JpaRepository   
  */
-public interface ProjectRepository extends JpaRepository<Project, Long> {
+@Transactional(readOnly = true)
+public interface ProjectRepository extends JpaRepository<Project, Long>, ProjectRepositoryCustom {
 	
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<Project> findByNameIgnoreCase(String name);
+
+	@EntityGraph(Project.WITH_USERS)
+	Optional<Project> findWithUsersById(Long id);
+
+	@EntityGraph(Project.WITH_USERS)
+	List<Project> findWithUsersByIdIn(Collection<Long> ids);
 	
-	Page<Project> findByNameContainingIgnoreCase(String name, Pageable p);
+	Slice<Project> findAllBy(Pageable p);
+
+	Slice<Project> findByNameContainingIgnoreCase(String name, Pageable p);
+
+	long countByNameContainingIgnoreCase(String name);
+
+	Slice<Project> findByIdGreaterThanOrderByIdAsc(Long id, Pageable p);
+
+	/**
+	 * Reads a chunk of the members of a project ordered by id, seeking through
+	 * the join table's {@code (project_id, users_id)} index.
+	 */
+	@Query("select u from Project p join p.users u where p.id = :id and u.id > :after order by u.id")
+	Slice<User> findMembers(@Param("id") Long id, @Param("after") Long after, Pageable p);
+
+	/**
+	 * Reads a chunk of the ids of the members of a project ordered by id, from
+	 * the join table alone, for the users stored in the user shards.
+	 */
+	@Query(value = "select users_id from project_users where project_id = :id and users_id > :after "
+			+ "order by users_id", nativeQuery = true)
+	Slice<Long> findMemberIds(@Param("id") Long id, @Param("after") Long after, Pageable p);
+
+	/**
+	 * Reads the membership rows of the given projects ordered by user id, from
+	 * the join table alone, for the users stored in the user shards.
+	 */
+	@Query(value = "select project_id as projectId, users_id as userId from project_users "
+			+ "where project_id in (:ids) order by users_id", nativeQuery = true)
+	List<ProjectMember> findMemberships(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * Reads a chunk of the projects a user belongs to ordered by id, seeking
+	 * through the join table's {@code (users_id, project_id)} index.
+	 */
+	@Query(value = "select p.* from project_users pu join project p on p.id = pu.project_id "
+			+ "where pu.users_id = :userId and pu.project_id > :after order by pu.project_id", nativeQuery = true)
+	Slice<Project> findByMember(@Param("userId") Long userId, @Param("after") Long after, Pageable p);
+
+	/**
+	 * Reads a chunk of the ids of the projects a user belongs to ordered by id,
+	 * from the join table's {@code (users_id, project_id)} index alone.
+	 */
+	@Query(value = "select project_id from project_users where users_id = :userId and project_id > :after "
+			+ "order by project_id", nativeQuery = true)
+	Slice<Long> findIdsByMember(@Param("userId") Long userId, @Param("after") Long after, Pageable p);
+
+	boolean existsByIdAndUsersId(Long id, Long userId);
+
+	/**
+	 * Reads the version of a project along with the number and versions of its
+	 * members, with a single aggregate query.
+	 */
+	@Query("select p.version as version, count(u) as members, coalesce(sum(u.version), 0) as membersVersion "
+			+ "from Project p left join p.users u where p.id = :id group by p.id, p.version")
+	Optional<ProjectVersions> findVersionsById(@Param("id") Long id);
+
+	/**
+	 * Increases the version of a project whose members were written directly into
+	 * the join table.
+	 * 
+	 * @return The number of updated rows.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update Project p set p.version = p.version + 1 where p.id = :id")
+	int bumpVersion(@Param("id") Long id);
+
+	/**
+	 * Deletes every membership row of the given projects with a single statement.
+	 * 
+	 * @return The number of deleted rows.
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = "delete from project_users where project_id in (:projectIds)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "project_users"))
+	int deleteMemberships(@Param("projectIds") Collection<Long> projectIds);
+
+	/**
+	 * Deletes a project provided it still holds the given version.
+	 * 
+	 * @return The number of deleted rows - 0 when the project doesn't exist or its
+	 *         version changed.
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from Project p where p.id = :id and p.version = :version")
+	int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
 
 }
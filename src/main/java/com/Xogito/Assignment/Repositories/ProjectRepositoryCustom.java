@@ -0,0 +1,112 @@
+package com.Xogito.Assignment.Repositories;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.Xogito.Assignment.Models.Project;
+
+/**
+ * Fragment of the {@link ProjectRepository} with bulk operations, mostly
+ * writing directly into the {@code project_users} join table.
+ */
+public interface ProjectRepositoryCustom {
+
+	String ADD_USER_SQL = "insert into project_users (project_id, users_id) select p.id, u.id from project p, user u "
+			+ "where p.id = :projectId and u.id = :userId and not exists "
+			+ "(select 1 from project_users pu where pu.project_id = p.id and pu.users_id = u.id)";
+
+	/**
+	 * Inserts a membership without checking the user, whose row lives in one of
+	 * the user shards.
+	 */
+	String ADD_SHARDED_USER_SQL = "insert into project_users (project_id, users_id) "
+			+ "select p.id, cast(:userId as bigint) from project p where p.id = :projectId and not exists "
+			+ "(select 1 from project_users pu where pu.project_id = p.id and pu.users_id = :userId)";
+
+	String REMOVE_USER_SQL = "delete from project_users where project_id = :projectId and users_id = :userId";
+
+	/**
+	 * Inserts the membership rows of the given users in JDBC batches, skipping
+	 * the ones that already exist. When a concurrent transaction inserts some of
+	 * them first, the batches are rolled back to a savepoint and written again.
+	 * 
+	 * @param projectId The project's id.
+	 * @param userIds   The ids of the users to assign.
+	 * @return The number of inserted rows per user - 0 when it was already
+	 *         assigned.
+	 */
+	int[] addUsers(Long projectId, List<Long> userIds);
+
+	/**
+	 * Inserts a single membership row unless it already exists and, when it's
+	 * inserted, increases the project's version in the same transaction.
+	 * 
+	 * @param projectId The project's id.
+	 * @param userId    The id of the user to assign.
+	 * @return The number of inserted rows - 0 when the user was already assigned,
+	 *         or when the project or the user don't exist.
+	 */
+	int addMember(Long projectId, Long userId);
+
+	/**
+	 * Deletes the membership rows of the given users in JDBC batches.
+	 * 
+	 * @param projectId The project's id.
+	 * @param userIds   The ids of the users to unassign.
+	 * @return The number of deleted rows per user - 0 when it wasn't assigned.
+	 */
+	int[] removeUsers(Long projectId, List<Long> userIds);
+
+	/**
+	 * Streams every project ordered by id, without their members. The rows are
+	 * fetched in chunks of {@code assignment.jdbc.fetch-size} and every project
+	 * is detached as soon as it's read, so the persistence context doesn't grow
+	 * with the table. Must be consumed inside a transaction and closed
+	 * afterwards.
+	 * 
+	 * @return Stream The projects of the database.
+	 */
+	Stream<Project> streamAll();
+
+	/**
+	 * Updates the given properties of a project with a single statement, setting only
+	 * their columns, and increases its version. The update only applies while the
+	 * project holds the expected version.
+	 * 
+	 * @param id      The project's id.
+	 * @param version The version the changes were computed against.
+	 * @param changes The new values by property.
+	 * @return The number of updated rows - 0 when the project doesn't exist or its
+	 *         version changed.
+	 */
+	int updateFields(Long id, Long version, Map<String, Object> changes);
+
+	/**
+	 * Reads only the given properties of a chunk of projects ordered by id, with a
+	 * single query selecting their columns.
+	 * 
+	 * @param fields The properties to read.
+	 * @param ids    The ids of the projects to read - null to read any project.
+	 * @param after  The id after which the projects are read - null to start from
+	 *               the first one.
+	 * @param offset The number of projects to skip.
+	 * @param limit  The maximum number of projects to read.
+	 * @return List The values of every project by property, in the given order.
+	 */
+	List<Map<String, Object>> findFields(List<String> fields, List<Long> ids, Long after, int offset, int limit);
+
+	/**
+	 * Reads only the given properties of a chunk of projects whose name contains the
+	 * given value, ignoring case, ordered by id, with a single query selecting
+	 * their columns.
+	 * 
+	 * @param fields The properties to read.
+	 * @param name   The value the names contain.
+	 * @param offset The number of projects to skip.
+	 * @param limit  The maximum number of projects to read.
+	 * @return List The values of every project by property, in the given order.
+	 */
+	List<Map<String, Object>> findFieldsByName(List<String> fields, String name, int offset, int limit);
+
+}
@@ -0,0 +1,160 @@
+package com.Xogito.Assignment.Repositories;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.hibernate.Cache;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.Xogito.Assignment.Configurations.AssignmentProperties;
+import com.Xogito.Assignment.Models.Project;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Implementation of the {@link ProjectRepositoryCustom} fragment.
+ */
+@RequiredArgsConstructor
+public class ProjectRepositoryCustomImpl implements ProjectRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	private final NamedParameterJdbcTemplate jdbc;
+	private final AssignmentProperties props;
+
+	private static final int MAX_ADD_ATTEMPTS = 3;
+
+	@Override
+	@Transactional
+	public int[] addUsers(Long projectId, List<Long> userIds) {
+		DataSource dataSource = jdbc.getJdbcTemplate().getDataSource();
+		Connection con = DataSourceUtils.getConnection(dataSource);
+		try {
+			for (int attempt = 1;; attempt++) {
+				Savepoint savepoint = savepoint(con);
+				try {
+					int[] rows = batchUpdate(addUserSql(), projectId, userIds);
+					release(con, savepoint);
+					return rows;
+				} catch (DataIntegrityViolationException e) {
+					// a concurrent transaction inserted some of the rows after they were
+					// checked, so the batch is written again, skipping them this time
+					rollback(con, savepoint);
+					if (attempt == MAX_ADD_ATTEMPTS) {
+						throw e;
+					}
+				}
+			}
+		} finally {
+			DataSourceUtils.releaseConnection(con, dataSource);
+		}
+	}
+
+	@Override
+	@Transactional
+	public int addMember(Long projectId, Long userId) {
+		int inserted = em.createNativeQuery(addUserSql()).setParameter("projectId", projectId)
+				.setParameter("userId", userId).unwrap(NativeQuery.class).addSynchronizedQuerySpace("project_users")
+				.executeUpdate();
+		if (inserted > 0) {
+			em.createQuery("update Project p set p.version = p.version + 1 where p.id = :id")
+					.setParameter("id", projectId).executeUpdate();
+		}
+		return inserted;
+	}
+
+	@Override
+	@Transactional
+	public int[] removeUsers(Long projectId, List<Long> userIds) {
+		return batchUpdate(REMOVE_USER_SQL, projectId, userIds);
+	}
+
+	@Override
+	public Stream<Project> streamAll() {
+		return em.createQuery("select p from Project p order by p.id", Project.class)
+				.setHint(HibernateHints.HINT_FETCH_SIZE, props.getJdbc().getFetchSize())
+				.setHint(HibernateHints.HINT_READ_ONLY, true).getResultStream().peek(em::detach);
+	}
+
+	@Override
+	@Transactional
+	public int updateFields(Long id, Long version, Map<String, Object> changes) {
+		return PartialUpdates.execute(em, Project.class, id, version, changes);
+	}
+
+	@Override
+	public List<Map<String, Object>> findFields(List<String> fields, List<Long> ids, Long after, int offset, int limit) {
+		return SparseSelects.select(em, Project.class, fields, ids, after, offset, limit);
+	}
+
+	@Override
+	public List<Map<String, Object>> findFieldsByName(List<String> fields, String name, int offset, int limit) {
+		return SparseSelects.selectByName(em, Project.class, fields, name, offset, limit);
+	}
+
+	private static Savepoint savepoint(Connection con) {
+		try {
+			return con.setSavepoint();
+		} catch (SQLException e) {
+			throw new CannotCreateTransactionException("Could not create a savepoint", e);
+		}
+	}
+
+	private static void release(Connection con, Savepoint savepoint) {
+		try {
+			con.releaseSavepoint(savepoint);
+		} catch (SQLException e) {
+			// the savepoint is released by the commit anyway
+		}
+	}
+
+	private static void rollback(Connection con, Savepoint savepoint) {
+		try {
+			con.rollback(savepoint);
+		} catch (SQLException e) {
+			throw new TransactionSystemException("Could not roll back to the savepoint", e);
+		}
+	}
+
+	private String addUserSql() {
+		return props.getDatasource().getUserShards().isEmpty() ? ADD_USER_SQL : ADD_SHARDED_USER_SQL;
+	}
+
+	private int[] batchUpdate(String sql, Long projectId, List<Long> userIds) {
+		int batchSize = props.getJdbc().getBatchSize();
+		int[] rows = new int[userIds.size()];
+		for (int from = 0; from < userIds.size(); from += batchSize) {
+			List<Long> chunk = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+			SqlParameterSource[] params = chunk.stream()
+					.map(userId -> new MapSqlParameterSource("projectId", projectId).addValue("userId", userId))
+					.toArray(SqlParameterSource[]::new);
+			System.arraycopy(jdbc.batchUpdate(sql, params), 0, rows, from, chunk.size());
+		}
+		// the rows are written behind Hibernate's back, so its cached copy of the
+		// members is dropped
+		em.getEntityManagerFactory().getCache().unwrap(Cache.class).evictCollectionData(Project.USERS_ROLE,
+				projectId);
+		return rows;
+	}
+
+}
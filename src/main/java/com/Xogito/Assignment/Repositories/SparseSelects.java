@@ -0,0 +1,84 @@
+package com.Xogito.Assignment.Repositories;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Builds the {@code SELECT} statements of the sparse fieldsets, reading only the
+ * requested columns of an entity into maps instead of loading the entities.
+ */
+class SparseSelects {
+
+	private SparseSelects() {
+	}
+
+	/**
+	 * Reads the given properties of a chunk of entities ordered by id.
+	 *
+	 * @param ids    The ids to read - null to read any entity.
+	 * @param after  The id after which the entities are read - null to start
+	 *               from the first one.
+	 * @param offset The number of entities to skip.
+	 * @param limit  The maximum number of entities to read.
+	 * @return The values of every entity by property, in the given order.
+	 */
+	static <T> List<Map<String, Object>> select(EntityManager em, Class<T> type, List<String> fields,
+			List<Long> ids, Long after, int offset, int limit) {
+		return select(em, type, fields, ids, after, null, offset, limit);
+	}
+
+	/**
+	 * Reads the given properties of a chunk of entities whose name contains the
+	 * given value, ignoring case, ordered by id.
+	 *
+	 * @param name   The value the names contain.
+	 * @param offset The number of entities to skip.
+	 * @param limit  The maximum number of entities to read.
+	 * @return The values of every entity by property, in the given order.
+	 */
+	static <T> List<Map<String, Object>> selectByName(EntityManager em, Class<T> type, List<String> fields,
+			String name, int offset, int limit) {
+		return select(em, type, fields, null, null, name, offset, limit);
+	}
+
+	private static <T> List<Map<String, Object>> select(EntityManager em, Class<T> type, List<String> fields,
+			List<Long> ids, Long after, String name, int offset, int limit) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<T> root = query.from(type);
+		query.multiselect(fields.stream().<Selection<?>>map(field -> root.get(field).alias(field)).toList());
+		Path<Long> id = root.get("id");
+		if (ids != null) {
+			query.where(id.in(ids));
+		} else if (after != null) {
+			query.where(cb.greaterThan(id, after));
+		} else if (name != null) {
+			query.where(cb.like(cb.lower(root.get("name")), containing(name), '\\'));
+		}
+		query.orderBy(cb.asc(id));
+		return em.createQuery(query).setFirstResult(offset).setMaxResults(limit).getResultStream().map(row -> {
+			Map<String, Object> values = new LinkedHashMap<>();
+			fields.forEach(field -> values.put(field, row.get(field)));
+			return values;
+		}).toList();
+	}
+
+	/**
+	 * @return The {@code LIKE} pattern, escaped with a backslash, of the lower
+	 *         case values containing the given one.
+	 */
+	static String containing(String value) {
+		return "%" + value.toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_")
+				+ "%";
+	}
+}
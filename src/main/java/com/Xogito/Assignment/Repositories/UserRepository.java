@@ -1,22 +1,73 @@
 package com.Xogito.Assignment.Repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import com.Xogito.Assignment.Models.User;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository for the {@link com.Xogito.Assignment.Models.User User} Entity
+ * <p>
+ * Its queries run in read-only transactions unless they're annotated
+ * otherwise, so they're served by the read replicas when there are any.
  * 
  * @extends JpaRepository   
  */
-public interface UserRepository extends JpaRepository<User, Long> {
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
 	Optional<User> findByName(String name);
 
-	Page<User> findByNameContainingIgnoreCase(String name, Pageable p);
+	Slice<User> findAllBy(Pageable p);
+
+	Slice<User> findByNameContainingIgnoreCase(String name, Pageable p);
+
+	long countByNameContainingIgnoreCase(String name);
 
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<User> findByEmail(String email);
+
+	List<User> findByEmailInOrIdIn(Collection<String> emails, Collection<Long> ids);
+
+	@Query("select u.email from User u where u.email in :emails")
+	List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+	Slice<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable p);
+
+	@Query(value = "select distinct project_id from project_users where users_id in (:userIds)", nativeQuery = true)
+	List<Long> findProjectIds(@Param("userIds") Collection<Long> userIds);
+
+	/**
+	 * Deletes every membership row of the given users with a single statement.
+	 * 
+	 * @return The number of deleted rows.
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = "delete from project_users where users_id in (:userIds)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "project_users"))
+	int deleteMemberships(@Param("userIds") Collection<Long> userIds);
+
+	/**
+	 * Deletes a user provided it still holds the given version.
+	 * 
+	 * @return The number of deleted rows - 0 when the user doesn't exist or its
+	 *         version changed.
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from User u where u.id = :id and u.version = :version")
+	int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
 }
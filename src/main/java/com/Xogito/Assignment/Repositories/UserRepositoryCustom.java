@@ -0,0 +1,73 @@
+package com.Xogito.Assignment.Repositories;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.Xogito.Assignment.Models.User;
+
+/**
+ * Fragment of the {@link UserRepository} with bulk write operations.
+ */
+public interface UserRepositoryCustom {
+
+	/**
+	 * Inserts a group of new users in a single transaction. The inserts are sent
+	 * in JDBC batches and the persistence context is cleared afterwards, so the
+	 * inserted users are detached.
+	 * 
+	 * @param users The users to insert.
+	 */
+	void insertAll(List<User> users);
+
+	/**
+	 * Streams every user ordered by id. The rows are fetched in chunks of
+	 * {@code assignment.jdbc.fetch-size} and every user is detached as soon as
+	 * it's read, so the persistence context doesn't grow with the table. Must be
+	 * consumed inside a transaction and closed afterwards.
+	 * 
+	 * @return Stream The users of the database.
+	 */
+	Stream<User> streamAll();
+
+	/**
+	 * Updates the given properties of a user with a single statement, setting only
+	 * their columns, and increases its version. The update only applies while the
+	 * user holds the expected version.
+	 * 
+	 * @param id      The user's id.
+	 * @param version The version the changes were computed against.
+	 * @param changes The new values by property.
+	 * @return The number of updated rows - 0 when the user doesn't exist or its
+	 *         version changed.
+	 */
+	int updateFields(Long id, Long version, Map<String, Object> changes);
+
+	/**
+	 * Reads only the given properties of a chunk of users ordered by id, with a
+	 * single query selecting their columns.
+	 * 
+	 * @param fields The properties to read.
+	 * @param ids    The ids of the users to read - null to read any user.
+	 * @param after  The id after which the users are read - null to start from
+	 *               the first one.
+	 * @param offset The number of users to skip.
+	 * @param limit  The maximum number of users to read.
+	 * @return List The values of every user by property, in the given order.
+	 */
+	List<Map<String, Object>> findFields(List<String> fields, List<Long> ids, Long after, int offset, int limit);
+
+	/**
+	 * Reads only the given properties of a chunk of users whose name contains the
+	 * given value, ignoring case, ordered by id, with a single query selecting
+	 * their columns.
+	 * 
+	 * @param fields The properties to read.
+	 * @param name   The value the names contain.
+	 * @param offset The number of users to skip.
+	 * @param limit  The maximum number of users to read.
+	 * @return List The values of every user by property, in the given order.
+	 */
+	List<Map<String, Object>> findFieldsByName(List<String> fields, String name, int offset, int limit);
+
+}
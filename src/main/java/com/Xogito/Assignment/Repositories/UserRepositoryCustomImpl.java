@@ -0,0 +1,60 @@
+package com.Xogito.Assignment.Repositories;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.Xogito.Assignment.Configurations.AssignmentProperties;
+import com.Xogito.Assignment.Models.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Implementation of the {@link UserRepositoryCustom} fragment.
+ */
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	private final AssignmentProperties props;
+
+	@Override
+	@Transactional
+	public void insertAll(List<User> users) {
+		users.forEach(em::persist);
+		em.flush();
+		em.clear();
+	}
+
+	@Override
+	public Stream<User> streamAll() {
+		return em.createQuery("select u from User u order by u.id", User.class)
+				.setHint(HibernateHints.HINT_FETCH_SIZE, props.getJdbc().getFetchSize())
+				.setHint(HibernateHints.HINT_READ_ONLY, true).getResultStream().peek(em::detach);
+	}
+
+	@Override
+	@Transactional
+	public int updateFields(Long id, Long version, Map<String, Object> changes) {
+		return PartialUpdates.execute(em, User.class, id, version, changes);
+	}
+
+	@Override
+	public List<Map<String, Object>> findFields(List<String> fields, List<Long> ids, Long after, int offset, int limit) {
+		return SparseSelects.select(em, User.class, fields, ids, after, offset, limit);
+	}
+
+	@Override
+	public List<Map<String, Object>> findFieldsByName(List<String> fields, String name, int offset, int limit) {
+		return SparseSelects.selectByName(em, User.class, fields, name, offset, limit);
+	}
+
+}
@@ -0,0 +1,656 @@
+package com.Xogito.Assignment.Repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.HsqlSequenceMaxValueIncrementer;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Xogito.Assignment.Models.User;
+
+/**
+ * Stores the users partitioned across several databases, the shards, instead of
+ * the primary database. A user is written to the shard picked by the hash of
+ * its email, and its id is that shard's next sequence value with the shard's
+ * index in its lowest {@value #SHARD_BITS} bits, so a lookup by id or by email
+ * reads a single shard. The sequence values are reserved in blocks of
+ * {@value #ID_BLOCK_SIZE}, one round trip per block, so a bulk import doesn't
+ * query the sequence for every user. Every shard also maps the emails hashed to it to their
+ * users' ids, so a user keeps its id, and its shard, when its email changes.
+ * <p>
+ * The listings query every shard at once on the given executor and merge the
+ * rows by id. The projects and their memberships stay in the primary database,
+ * which refers to the users by id only.
+ */
+public class UserShards implements AutoCloseable {
+
+	/**
+	 * Number of bits of a user's id holding its shard, bounding the shards to
+	 * 1024.
+	 */
+	public static final int SHARD_BITS = 10;
+
+	private static final long SHARD_MASK = (1L << SHARD_BITS) - 1;
+
+	/**
+	 * Number of sequence values reserved at once - the increment of the shards'
+	 * {@code user_seq} sequence.
+	 */
+	public static final int ID_BLOCK_SIZE = 500;
+
+	/**
+	 * Largest offset of the chunks read by offset: every shard reads the rows
+	 * before the chunk too, so the deeper chunks must be read after an id
+	 * instead, with {@link #findAllAfter}.
+	 */
+	public static final int MAX_OFFSET = 10_000;
+
+	private static final Set<String> SELECTABLE_COLUMNS = Set.of("id", "name", "email");
+
+	private static final Set<String> UPDATABLE_COLUMNS = Set.of("name", "email");
+
+	private static final String SELECT = "select u.id, u.name, u.email, u.version from user u ";
+
+	private static final RowMapper<User> USER = (rs, row) -> {
+		User u = new User(rs.getLong("id"), rs.getString("name"), rs.getString("email"));
+		u.setVersion(rs.getLong("version"));
+		return u;
+	};
+
+	private final List<Shard> shards;
+
+	private final ExecutorService executor;
+
+	private record Shard(int index, DataSource dataSource, NamedParameterJdbcTemplate jdbc, TransactionTemplate tx,
+			IdBlock ids) {
+	}
+
+	/**
+	 * Hands out the sequence values of a shard from the last block reserved, and
+	 * reserves the next block once it runs out.
+	 */
+	private static class IdBlock {
+
+		private final DataFieldMaxValueIncrementer sequence;
+
+		private long next;
+
+		private long end;
+
+		private IdBlock(DataFieldMaxValueIncrementer sequence) {
+			this.sequence = sequence;
+		}
+
+		private synchronized long next() {
+			if (next == end) {
+				next = sequence.nextLongValue();
+				end = next + ID_BLOCK_SIZE;
+			}
+			return next++;
+		}
+
+	}
+
+	/**
+	 * A user found by email, or only the id it's mapped to when the user is
+	 * stored in another shard.
+	 */
+	private record EmailMatch(Long userId, User user) {
+	}
+
+	/**
+	 * @param databases The shards, in a fixed order: a user's shard is its index
+	 *                  in this list.
+	 * @param executor  The executor querying the shards in parallel.
+	 * @param fetchSize The number of rows fetched per round trip by the streamed
+	 *                  reads.
+	 */
+	public UserShards(List<DataSource> databases, ExecutorService executor, int fetchSize) {
+		if (databases.size() > SHARD_MASK + 1) {
+			throw new IllegalArgumentException("The users can't be split across more than " + (SHARD_MASK + 1)
+					+ " shards, but " + databases.size() + " were given.");
+		}
+		this.shards = IntStream.range(0, databases.size()).mapToObj(i -> {
+			DataSource ds = databases.get(i);
+			NamedParameterJdbcTemplate jdbc = new NamedParameterJdbcTemplate(ds);
+			jdbc.getJdbcTemplate().setFetchSize(fetchSize);
+			return new Shard(i, ds, jdbc, new TransactionTemplate(new DataSourceTransactionManager(ds)),
+					new IdBlock(new HsqlSequenceMaxValueIncrementer(ds, "user_seq")));
+		}).toList();
+		this.executor = executor;
+	}
+
+	/**
+	 * @return The shards of an application keeping the users in the primary
+	 *         database.
+	 */
+	public static UserShards none() {
+		return new UserShards(List.of(), null, 0);
+	}
+
+	/**
+	 * @return Whether the users are stored in the shards instead of the primary
+	 *         database.
+	 */
+	public boolean isEnabled() {
+		return !shards.isEmpty();
+	}
+
+	/**
+	 * @return The index of the shard storing the users with the given email.
+	 */
+	public int shardOf(String email) {
+		return Math.floorMod(email.hashCode(), shards.size());
+	}
+
+	/**
+	 * @return The index of the shard storing the user with the given id.
+	 */
+	public static int shardOf(long id) {
+		return (int) (id & SHARD_MASK);
+	}
+
+	private Optional<Shard> shardOfId(Long id) {
+		int index = shardOf(id);
+		return id > 0 && index < shards.size() ? Optional.of(shards.get(index)) : Optional.empty();
+	}
+
+	public Optional<User> findById(Long id) {
+		return shardOfId(id).flatMap(s -> s.jdbc().query(SELECT + "where u.id = :id", Map.of("id", id), USER)
+				.stream().findFirst());
+	}
+
+	/**
+	 * Reads the users with the given ids, only querying the shards storing them.
+	 *
+	 * @return The found users, in no particular order.
+	 */
+	public List<User> findAllById(Collection<Long> ids) {
+		Map<Shard, List<Long>> byShard = new LinkedHashMap<>();
+		ids.forEach(id -> shardOfId(id).ifPresent(s -> byShard.computeIfAbsent(s, k -> new ArrayList<>()).add(id)));
+		return scatter(byShard.keySet(),
+				s -> s.jdbc().query(SELECT + "where u.id in (:ids)", Map.of("ids", byShard.get(s)), USER));
+	}
+
+	public Optional<User> findByEmail(String email) {
+		return findAllByEmail(List.of(email)).stream().findFirst();
+	}
+
+	/**
+	 * Reads the users with the given emails from the shards mapping them, and
+	 * from the users' own shards when they differ.
+	 *
+	 * @return The found users, in no particular order.
+	 */
+	public List<User> findAllByEmail(Collection<String> emails) {
+		Map<Shard, List<String>> byShard = groupByEmail(emails);
+		List<EmailMatch> matches = scatter(byShard.keySet(), s -> s.jdbc().query(
+				"select e.user_id, u.id, u.name, u.email, u.version from user_email e left join user u "
+						+ "on u.id = e.user_id where e.email in (:emails)",
+				Map.of("emails", byShard.get(s)), (rs, row) -> new EmailMatch(rs.getLong("user_id"),
+						rs.getObject("id") == null ? null : USER.mapRow(rs, row))));
+		List<User> users = new ArrayList<>();
+		List<Long> elsewhere = new ArrayList<>();
+		matches.forEach(m -> {
+			if (m.user() == null) {
+				elsewhere.add(m.userId());
+			} else {
+				users.add(m.user());
+			}
+		});
+		if (!elsewhere.isEmpty()) {
+			users.addAll(findAllById(elsewhere));
+		}
+		// a user whose email is being changed is mapped from both emails for a moment
+		Set<String> requested = Set.copyOf(emails);
+		return users.stream().filter(u -> requested.contains(u.getEmail())).toList();
+	}
+
+	/**
+	 * Reads the users with the given emails or ids.
+	 *
+	 * @return The found users, each once, in no particular order.
+	 */
+	public List<User> findByEmailInOrIdIn(Collection<String> emails, Collection<Long> ids) {
+		Map<Long, User> users = new LinkedHashMap<>();
+		Stream.concat(emails.isEmpty() ? Stream.empty() : findAllByEmail(emails).stream(),
+				ids.isEmpty() ? Stream.empty() : findAllById(ids).stream()).forEach(u -> users.putIfAbsent(u.getId(), u));
+		return new ArrayList<>(users.values());
+	}
+
+	/**
+	 * @return The given emails already taken by a user.
+	 */
+	public List<String> findExistingEmails(Collection<String> emails) {
+		Map<Shard, List<String>> byShard = groupByEmail(emails);
+		return scatter(byShard.keySet(), s -> s.jdbc().queryForList(
+				"select email from user_email where email in (:emails)", Map.of("emails", byShard.get(s)), String.class));
+	}
+
+	/**
+	 * Reads a chunk of the users ordered by id, reading the first
+	 * {@code offset + limit} users of every shard.
+	 *
+	 * @throws IllegalArgumentException When the offset exceeds
+	 *                                  {@value #MAX_OFFSET}.
+	 */
+	public List<User> findAll(int offset, int limit) {
+		checkOffset(offset);
+		return merge(scatter(shards, s -> s.jdbc().query(SELECT + "order by u.id limit :limit",
+				Map.of("limit", offset + limit), USER)), offset, limit);
+	}
+
+	/**
+	 * Reads the first users with an id greater than the given one, ordered by id.
+	 */
+	public List<User> findAllAfter(long after, int limit) {
+		return merge(scatter(shards, s -> s.jdbc().query(SELECT + "where u.id > :after order by u.id limit :limit",
+				Map.of("after", after, "limit", limit), USER)), 0, limit);
+	}
+
+	/**
+	 * Reads a chunk of the users whose name contains the given value, ignoring
+	 * case, ordered by id.
+	 *
+	 * @throws IllegalArgumentException When the offset exceeds
+	 *                                  {@value #MAX_OFFSET}.
+	 */
+	public List<User> findByNameContaining(String name, int offset, int limit) {
+		checkOffset(offset);
+		Map<String, Object> params = Map.of("name", SparseSelects.containing(name), "limit", offset + limit);
+		return merge(scatter(shards, s -> s.jdbc().query(
+				SELECT + "where lower(u.name) like :name escape '\\' order by u.id limit :limit", params, USER)), offset,
+				limit);
+	}
+
+	public long count() {
+		return scatter(shards, s -> List.of(s.jdbc().getJdbcTemplate().queryForObject("select count(*) from user",
+				Long.class))).stream().mapToLong(Long::longValue).sum();
+	}
+
+	public long countByNameContaining(String name) {
+		return scatter(shards, s -> List.of(s.jdbc().queryForObject(
+				"select count(*) from user where lower(name) like :name escape '\\'",
+				Map.of("name", SparseSelects.containing(name)), Long.class))).stream().mapToLong(Long::longValue).sum();
+	}
+
+	/**
+	 * Reads the given columns of a chunk of users ordered by id, with the same
+	 * arguments as {@link UserRepositoryCustom#findFields}.
+	 *
+	 * @throws IllegalArgumentException When the fields can't be selected, or when
+	 *                                  the offset exceeds {@value #MAX_OFFSET}.
+	 */
+	public List<Map<String, Object>> findFields(List<String> fields, List<Long> ids, Long after, int offset,
+			int limit) {
+		checkOffset(offset);
+		String select = selectFields(fields);
+		RowMapper<Map.Entry<Long, Map<String, Object>>> row = fieldsRow(fields);
+		List<Map.Entry<Long, Map<String, Object>>> rows;
+		if (ids != null) {
+			Map<Shard, List<Long>> byShard = new LinkedHashMap<>();
+			ids.forEach(id -> shardOfId(id).ifPresent(s -> byShard.computeIfAbsent(s, k -> new ArrayList<>()).add(id)));
+			rows = scatter(byShard.keySet(), s -> s.jdbc().query(select + "where id in (:ids) order by id",
+					Map.of("ids", byShard.get(s)), row));
+		} else {
+			Map<String, Object> params = Map.of("after", after == null ? 0L : after, "limit", offset + limit);
+			rows = scatter(shards, s -> s.jdbc().query(select + "where id > :after order by id limit :limit", params,
+					row));
+		}
+		return mergeFields(rows, offset, limit);
+	}
+
+	/**
+	 * Reads the given columns of a chunk of users whose name contains the given
+	 * value, ignoring case, ordered by id, with the same arguments as
+	 * {@link UserRepositoryCustom#findFieldsByName}.
+	 *
+	 * @throws IllegalArgumentException When the fields can't be selected, or when
+	 *                                  the offset exceeds {@value #MAX_OFFSET}.
+	 */
+	public List<Map<String, Object>> findFieldsByName(List<String> fields, String name, int offset, int limit) {
+		checkOffset(offset);
+		String select = selectFields(fields);
+		Map<String, Object> params = Map.of("name", SparseSelects.containing(name), "limit", offset + limit);
+		return mergeFields(scatter(shards, s -> s.jdbc().query(
+				select + "where lower(name) like :name escape '\\' order by id limit :limit", params,
+				fieldsRow(fields))), offset, limit);
+	}
+
+	private static String selectFields(List<String> fields) {
+		if (!SELECTABLE_COLUMNS.containsAll(fields)) {
+			throw new IllegalArgumentException("The users can't be read by " + fields + ".");
+		}
+		return "select id, " + String.join(", ", fields) + " from user ";
+	}
+
+	private static RowMapper<Map.Entry<Long, Map<String, Object>>> fieldsRow(List<String> fields) {
+		return (rs, i) -> {
+			Map<String, Object> values = new LinkedHashMap<>();
+			for (String field : fields) {
+				values.put(field, rs.getObject(field));
+			}
+			return Map.entry(rs.getLong("id"), values);
+		};
+	}
+
+	/**
+	 * Merges the columns read from several shards into a single chunk ordered by
+	 * id, like {@link #merge}.
+	 */
+	private static List<Map<String, Object>> mergeFields(List<Map.Entry<Long, Map<String, Object>>> rows, int offset,
+			int limit) {
+		return rows.stream().sorted(Map.Entry.comparingByKey()).skip(offset).limit(limit).map(Map.Entry::getValue)
+				.toList();
+	}
+
+	/**
+	 * Streams every user ordered by id, merging the rows of all the shards as
+	 * they're read: every shard's query stays open, with a single row read ahead,
+	 * until the stream is closed. The stream must be closed.
+	 */
+	public Stream<User> streamAll() {
+		List<Stream<User>> streams = new ArrayList<>();
+		try {
+			shards.forEach(s -> streams.add(s.jdbc().getJdbcTemplate().queryForStream(SELECT + "order by u.id", USER)));
+		} catch (RuntimeException e) {
+			closeAll(streams);
+			throw e;
+		}
+		Iterator<User> merged = mergeById(streams.stream().map(Stream::iterator).toList());
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> closeAll(streams));
+	}
+
+	/**
+	 * Merges iterators of users, each ordered by id, into one ordered by id,
+	 * advancing a single iterator per user returned.
+	 */
+	private static Iterator<User> mergeById(List<Iterator<User>> sources) {
+		PriorityQueue<Map.Entry<User, Iterator<User>>> heads = new PriorityQueue<>(
+				Comparator.comparing(head -> head.getKey().getId()));
+		return new Iterator<>() {
+
+			private boolean started;
+
+			@Override
+			public boolean hasNext() {
+				if (!started) {
+					started = true;
+					sources.stream().filter(Iterator::hasNext).forEach(it -> heads.add(Map.entry(it.next(), it)));
+				}
+				return !heads.isEmpty();
+			}
+
+			@Override
+			public User next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Map.Entry<User, Iterator<User>> head = heads.poll();
+				if (head.getValue().hasNext()) {
+					heads.add(Map.entry(head.getValue().next(), head.getValue()));
+				}
+				return head.getKey();
+			}
+
+		};
+	}
+
+	/**
+	 * Closes every given stream, even when closing one of them fails.
+	 */
+	private static void closeAll(List<? extends Stream<?>> streams) {
+		RuntimeException failure = null;
+		for (Stream<?> stream : streams) {
+			try {
+				stream.close();
+			} catch (RuntimeException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Writes a new user to the shard of its email, assigning its id.
+	 *
+	 * @throws org.springframework.dao.DataIntegrityViolationException When its
+	 *                                                                 email is
+	 *                                                                 taken.
+	 */
+	public void insert(User u) {
+		insertAll(List.of(u));
+	}
+
+	/**
+	 * Writes new users to the shards of their emails in JDBC batches, assigning
+	 * their ids. Every shard is written in its own transaction, and the shards
+	 * written before a failing one are deleted again, so either every user is
+	 * written or none is.
+	 *
+	 * @throws org.springframework.dao.DataIntegrityViolationException When one of
+	 *                                                                 the emails
+	 *                                                                 is taken.
+	 */
+	public void insertAll(List<User> users) {
+		Map<Shard, List<User>> byShard = new LinkedHashMap<>();
+		users.forEach(u -> byShard.computeIfAbsent(shards.get(shardOf(u.getEmail())), k -> new ArrayList<>()).add(u));
+		List<Map.Entry<Shard, List<User>>> written = new ArrayList<>();
+		try {
+			for (Map.Entry<Shard, List<User>> entry : byShard.entrySet()) {
+				insert(entry.getKey(), entry.getValue());
+				written.add(entry);
+			}
+		} catch (RuntimeException e) {
+			written.forEach(entry -> delete(entry.getKey(), entry.getValue()));
+			users.forEach(u -> u.setId(null));
+			throw e;
+		}
+	}
+
+	private void insert(Shard shard, List<User> users) {
+		shard.tx().executeWithoutResult(status -> {
+			SqlParameterSource[] rows = users.stream().map(u -> new MapSqlParameterSource()
+					.addValue("id", (shard.ids().next() << SHARD_BITS) | shard.index())
+					.addValue("name", u.getName()).addValue("email", u.getEmail())).toArray(SqlParameterSource[]::new);
+			shard.jdbc().batchUpdate("insert into user_email (email, user_id) values (:email, :id)", rows);
+			shard.jdbc().batchUpdate("insert into user (id, name, email, version) values (:id, :name, :email, 0)",
+					rows);
+			for (int i = 0; i < users.size(); i++) {
+				users.get(i).setId((Long) rows[i].getValue("id"));
+				users.get(i).setVersion(0L);
+			}
+		});
+	}
+
+	/**
+	 * Writes the given values of a user, provided it still holds the given
+	 * version, with the same arguments as
+	 * {@link UserRepositoryCustom#updateFields}. A new email is claimed in its
+	 * shard before the user is written, and the previous one is released
+	 * afterwards.
+	 *
+	 * @return The number of updated users - 0 when the user doesn't exist or its
+	 *         version changed.
+	 * @throws org.springframework.dao.DataIntegrityViolationException When the
+	 *                                                                 new email
+	 *                                                                 is taken.
+	 */
+	public int updateFields(Long id, Long version, Map<String, Object> changes) {
+		if (!UPDATABLE_COLUMNS.containsAll(changes.keySet())) {
+			throw new IllegalArgumentException("The users can't be updated by " + changes.keySet() + ".");
+		}
+		Optional<Shard> home = shardOfId(id);
+		if (home.isEmpty()) {
+			return 0;
+		}
+		Map<String, Object> params = new LinkedHashMap<>(changes);
+		params.put("id", id);
+		params.put("version", version);
+		String email = (String) changes.get("email");
+		List<String> previous = List.of();
+		if (email != null) {
+			previous = home.get().jdbc().queryForList("select email from user where id = :id", params, String.class);
+			if (previous.isEmpty()) {
+				return 0;
+			}
+			shards.get(shardOf(email)).jdbc().update("insert into user_email (email, user_id) values (:email, :id)",
+					params);
+		}
+		int updated;
+		try {
+			updated = home.get().jdbc().update("update user set " + changes.keySet().stream()
+					.map(column -> column + " = :" + column).collect(Collectors.joining(", "))
+					+ ", version = version + 1 where id = :id and version = :version", params);
+		} catch (RuntimeException e) {
+			if (email != null) {
+				release(id, List.of(email));
+			}
+			throw e;
+		}
+		if (email != null) {
+			release(id, updated == 0 ? List.of(email) : previous);
+		}
+		return updated;
+	}
+
+	/**
+	 * Deletes the users with the given ids, and releases their emails.
+	 */
+	public void deleteAllById(Collection<Long> ids) {
+		Map<Shard, List<Long>> byShard = new LinkedHashMap<>();
+		ids.forEach(id -> shardOfId(id).ifPresent(s -> byShard.computeIfAbsent(s, k -> new ArrayList<>()).add(id)));
+		byShard.forEach((shard, shardIds) -> delete(shard,
+				shard.jdbc().query(SELECT + "where u.id in (:ids)", Map.of("ids", shardIds), USER)));
+	}
+
+	/**
+	 * Deletes a user provided it still holds the given version, and releases its
+	 * email.
+	 *
+	 * @return The number of deleted users - 0 when the user doesn't exist or its
+	 *         version changed.
+	 */
+	public int deleteByIdAndVersion(Long id, Long version) {
+		Optional<Shard> home = shardOfId(id);
+		Map<String, Object> params = Map.of("id", id, "version", version);
+		List<String> email = home.map(s -> s.jdbc().queryForList(
+				"select email from user where id = :id and version = :version", params, String.class)).orElse(List.of());
+		if (email.isEmpty()) {
+			return 0;
+		}
+		int deleted = home.get().jdbc().update("delete from user where id = :id and version = :version", params);
+		if (deleted > 0) {
+			release(id, email);
+		}
+		return deleted;
+	}
+
+	private void delete(Shard shard, List<User> users) {
+		if (users.isEmpty()) {
+			return;
+		}
+		shard.jdbc().update("delete from user where id in (:ids)",
+				Map.of("ids", users.stream().map(User::getId).toList()));
+		users.forEach(u -> release(u.getId(), List.of(u.getEmail())));
+	}
+
+	/**
+	 * Deletes the mappings of the given emails to a user from their shards.
+	 */
+	private void release(Long id, List<String> emails) {
+		emails.forEach(email -> shards.get(shardOf(email)).jdbc().update(
+				"delete from user_email where email = :email and user_id = :id", Map.of("email", email, "id", id)));
+	}
+
+	private Map<Shard, List<String>> groupByEmail(Collection<String> emails) {
+		Map<Shard, List<String>> byShard = new LinkedHashMap<>();
+		emails.forEach(email -> byShard.computeIfAbsent(shards.get(shardOf(email)), k -> new ArrayList<>()).add(email));
+		return byShard;
+	}
+
+	/**
+	 * Runs a query on every given shard, in parallel when there are several, and
+	 * concatenates their rows.
+	 */
+	private <T> List<T> scatter(Collection<Shard> targets, Function<Shard, List<T>> query) {
+		if (targets.size() <= 1) {
+			return targets.isEmpty() ? List.of() : query.apply(targets.iterator().next());
+		}
+		List<CompletableFuture<List<T>>> parts = targets.stream()
+				.map(s -> CompletableFuture.supplyAsync(() -> query.apply(s), executor)).toList();
+		List<T> rows = new ArrayList<>();
+		try {
+			parts.forEach(part -> rows.addAll(part.join()));
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+		return rows;
+	}
+
+	/**
+	 * Merges the users read from several shards, each ordered by id, into a
+	 * single chunk ordered by id.
+	 */
+	private static List<User> merge(List<User> users, int offset, int limit) {
+		return users.stream().sorted(Comparator.comparing(User::getId)).skip(offset).limit(limit).toList();
+	}
+
+	private static void checkOffset(int offset) {
+		if (offset > MAX_OFFSET) {
+			throw new IllegalArgumentException("The users can't be read past the first " + MAX_OFFSET
+					+ " by offset, but the offset " + offset + " was given.");
+		}
+	}
+
+
+	@Override
+	public void close() throws Exception {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		for (Shard shard : shards) {
+			if (shard.dataSource() instanceof AutoCloseable pool) {
+				pool.close();
+			}
+		}
+	}
+}
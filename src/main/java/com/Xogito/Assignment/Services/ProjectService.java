@@ -1,10 +1,23 @@
 package com.Xogito.Assignment.Services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.Xogito.Assignment.DTOs.MembershipBatch;
+import com.Xogito.Assignment.DTOs.MembershipResult;
+import com.Xogito.Assignment.DTOs.MultiGetResult;
+import com.Xogito.Assignment.DTOs.ProjectVersions;
+import com.Xogito.Assignment.DTOs.Suggestion;
 import com.Xogito.Assignment.Models.Project;
+import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Utilities.DataFormat;
+import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Service interface for the {@link com.Xogito.Assignment.Models.Project Project} Entity 
@@ -13,15 +26,69 @@ public interface ProjectService {
 
 	public List<Project> findAll(int page, int size) throws ResponseStatusException;
 
+	public List<Project> findAll(int page, int size, Class<?> view) throws ResponseStatusException;
+
+	public Slice<Project> findAllAfter(Long after, int size) throws ResponseStatusException;
+
+	public List<Map<String, Object>> findAll(int page, int size, List<String> fields) throws ResponseStatusException;
+
+	public Slice<Map<String, Object>> findAllAfter(Long after, int size, List<String> fields) throws ResponseStatusException;
+
 	public List<Project> findAllByName(String name, int page, int size) throws ResponseStatusException;
 
+	public List<Map<String, Object>> findAllByName(String name, int page, int size, List<String> fields)
+			throws ResponseStatusException;
+
+	public long count();
+
+	public long countByName(String name);
+
+	public List<Suggestion> suggest(String prefix, int limit);
+
 	public Project findById(Long id) throws ResponseStatusException;
 
+	public Map<String, Object> findById(Long id, List<String> fields) throws ResponseStatusException;
+
+	public Project findById(Long id, Class<?> view) throws ResponseStatusException;
+
+	public Project findById(Long id, int membersLimit) throws ResponseStatusException;
+
+	public MultiGetResult<Project> findAllById(List<Long> ids);
+
+	public MultiGetResult<Map<String, Object>> findAllById(List<Long> ids, List<String> fields)
+			throws ResponseStatusException;
+
+	public Slice<User> findMembers(Long id, Long after, int size) throws ResponseStatusException;
+
+	public Slice<Map<String, Object>> findMembers(Long id, Long after, int size, List<String> fields)
+			throws ResponseStatusException;
+
+	public Slice<Project> findAllByMember(Long userId, Long after, int size) throws ResponseStatusException;
+
+	public Slice<Map<String, Object>> findAllByMember(Long userId, Long after, int size, List<String> fields)
+			throws ResponseStatusException;
+
+	public String findETag(Long id) throws ResponseStatusException;
+
+	public ProjectVersions findVersions(Long id) throws ResponseStatusException;
+
+	public void exportProjects(OutputStream out, DataFormat format) throws IOException;
+
 	public Project create(Project p) throws ResponseStatusException;
 
 	public Project update(Long id, Project p) throws ResponseStatusException;
 
+	public Project update(Long id, Project p, String ifMatch) throws ResponseStatusException;
+
+	public Project patch(Long id, JsonNode fields, String ifMatch) throws ResponseStatusException;
+
 	public Project assignUser(Long pId, String email) throws ResponseStatusException;
 
+	public List<MembershipResult> updateMembers(Long pId, MembershipBatch batch) throws ResponseStatusException;
+
 	public Project remove(Long id) throws ResponseStatusException;
+
+	public Project remove(Long id, String ifMatch) throws ResponseStatusException;
+
+	public List<Project> removeAll(Collection<Long> ids) throws ResponseStatusException;
 }
@@ -1,8 +1,20 @@
 package com.Xogito.Assignment.Services;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Slice;
 import org.springframework.web.server.ResponseStatusException;
+import com.Xogito.Assignment.DTOs.ImportSummary;
+import com.Xogito.Assignment.DTOs.MultiGetResult;
+import com.Xogito.Assignment.DTOs.Suggestion;
 import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Utilities.DataFormat;
+import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Service interface for the {@link com.Xogito.Assignment.Models.User User} Entity 
@@ -11,16 +23,52 @@ public interface UserService {
 
 	public List<User> findAll(int page, int size) throws ResponseStatusException;
 
+	public Slice<User> findAllAfter(Long after, int size) throws ResponseStatusException;
+
+	public List<Map<String, Object>> findAll(int page, int size, List<String> fields) throws ResponseStatusException;
+
+	public Slice<Map<String, Object>> findAllAfter(Long after, int size, List<String> fields) throws ResponseStatusException;
+
 	public List<User> findAllByName(String name, int page, int size) throws ResponseStatusException;
 
+	public List<Map<String, Object>> findAllByName(String name, int page, int size, List<String> fields)
+			throws ResponseStatusException;
+
+	public long count();
+
+	public long countByName(String name);
+
+	public List<Suggestion> suggest(String prefix, int limit);
+
 	public User findById(Long id) throws ResponseStatusException;
 
+	public Map<String, Object> findById(Long id, List<String> fields) throws ResponseStatusException;
+
+	public MultiGetResult<User> findAllById(List<Long> ids);
+
+	public MultiGetResult<Map<String, Object>> findAllById(List<Long> ids, List<String> fields)
+			throws ResponseStatusException;
+
 	public User findByEmail(String email) throws ResponseStatusException;
 
+	public Map<String, Long> findIds(Collection<String> users);
+
 	public User create(User u) throws ResponseStatusException;
 
+	public ImportSummary importUsers(InputStream body, DataFormat format) throws ResponseStatusException;
+
+	public void exportUsers(OutputStream out, DataFormat format) throws IOException;
+
 	public User update(Long id, User u) throws ResponseStatusException;
 
+	public User update(Long id, User u, String ifMatch) throws ResponseStatusException;
+
+	public User patch(Long id, JsonNode fields, String ifMatch) throws ResponseStatusException;
+
 	public User remove(Long id) throws ResponseStatusException;
 
+	public User remove(Long id, String ifMatch) throws ResponseStatusException;
+
+	public List<User> removeAll(Collection<Long> ids) throws ResponseStatusException;
+
 }
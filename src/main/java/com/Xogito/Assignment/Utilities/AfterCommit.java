@@ -0,0 +1,38 @@
+package com.Xogito.Assignment.Utilities;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers the changes of the in-memory state following the database, such as
+ * the indexes and the running counts, until the transaction writing the
+ * database commits, so the other threads never see a write that may still be
+ * rolled back, and a rolled back write leaves them untouched.
+ */
+public class AfterCommit {
+
+	private AfterCommit() {
+	}
+
+	/**
+	 * Runs an action once the current transaction commits, dropping it when the
+	 * transaction rolls back, or right away outside of a transaction.
+	 *
+	 * @param action The change of the in-memory state.
+	 */
+	public static void run(Runnable action) {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()
+				|| !TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+
+		});
+	}
+}
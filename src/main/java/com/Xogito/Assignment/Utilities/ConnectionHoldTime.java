@@ -0,0 +1,86 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Adds up how long a thread holds the connections of a data source, from the
+ * moment each one is borrowed until it's closed. Only the connections borrowed
+ * between {@link #start()} and {@link #stop()} are measured, so the rest are
+ * handed out untouched.
+ */
+public class ConnectionHoldTime {
+
+	private static final ThreadLocal<AtomicLong> HELD = new ThreadLocal<>();
+
+	private ConnectionHoldTime() {
+	}
+
+	/**
+	 * Starts measuring the connections borrowed by the current thread.
+	 */
+	public static void start() {
+		HELD.set(new AtomicLong());
+	}
+
+	/**
+	 * Stops measuring the connections borrowed by the current thread.
+	 *
+	 * @return The time the closed connections were held, in nanoseconds.
+	 */
+	public static long stop() {
+		AtomicLong held = HELD.get();
+		HELD.remove();
+		return held == null ? 0 : held.get();
+	}
+
+	/**
+	 * Wraps a data source so its connections are measured.
+	 *
+	 * @param dataSource The data source.
+	 * @return The measured data source.
+	 */
+	public static DataSource track(DataSource dataSource) {
+		return new DelegatingDataSource(dataSource) {
+
+			@Override
+			public Connection getConnection() throws SQLException {
+				return track(super.getConnection());
+			}
+
+			@Override
+			public Connection getConnection(String username, String password) throws SQLException {
+				return track(super.getConnection(username, password));
+			}
+
+		};
+	}
+
+	private static Connection track(Connection connection) {
+		AtomicLong held = HELD.get();
+		if (held == null) {
+			return connection;
+		}
+		long borrowed = System.nanoTime();
+		AtomicBoolean closed = new AtomicBoolean();
+		return (Connection) Proxy.newProxyInstance(ConnectionHoldTime.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+						held.addAndGet(System.nanoTime() - borrowed);
+					}
+					try {
+						return method.invoke(connection, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+				});
+	}
+}
@@ -0,0 +1,74 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Encodes and decodes the opaque cursors used by the keyset (seek) paginated
+ * endpoints. A cursor wraps the id of the last element of a slice, so the next
+ * slice can be requested with an {@code id > cursor} predicate instead of an
+ * offset.
+ */
+public class Cursors {
+
+	private static final String PREFIX = "id:";
+
+	private Cursors() {
+	}
+
+	/**
+	 * Generates an opaque cursor pointing right after the given id.
+	 *
+	 * @param id The id of the last retrieved element.
+	 * @return The encoded cursor.
+	 */
+	public static String encode(Long id) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodes a cursor previously generated by {@link #encode encode()}.
+	 *
+	 * @param cursor The received cursor - a blank value points to the first
+	 *               element.
+	 * @return The id the cursor points after, or null when the cursor is blank.
+	 *
+	 * @throws ResponseStatusException When the cursor is not a valid cursor.
+	 */
+	public static Long decode(String cursor) throws ResponseStatusException {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (!value.startsWith(PREFIX)) {
+				throw new IllegalArgumentException(value);
+			}
+			return Long.valueOf(value.substring(PREFIX.length()));
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The cursor '" + cursor + "' is not valid.");
+		}
+	}
+
+	/**
+	 * Generates the cursor of the slice following the given one.
+	 *
+	 * @param slice The retrieved slice.
+	 * @param id    Function extracting the id of an element of the slice.
+	 * @return The encoded cursor, or null when there are no more elements.
+	 */
+	public static <T> String next(Slice<T> slice, Function<T, Long> id) {
+		if (!slice.hasNext()) {
+			return null;
+		}
+		List<T> content = slice.getContent();
+		return encode(id.apply(content.get(content.size() - 1)));
+	}
+}
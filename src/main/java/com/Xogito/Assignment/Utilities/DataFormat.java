@@ -0,0 +1,181 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+/**
+ * Line oriented formats accepted by the bulk import and export endpoints.
+ * Records are processed one line at a time, so bodies are never buffered as a
+ * whole.
+ */
+public enum DataFormat {
+
+	NDJSON(DataFormat.NDJSON_VALUE), CSV(DataFormat.CSV_VALUE);
+
+	public static final String NDJSON_VALUE = "application/x-ndjson";
+
+	public static final String CSV_VALUE = "text/csv";
+
+	private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+			.build();
+
+	private final MediaType mediaType;
+
+	DataFormat(String mediaType) {
+		this.mediaType = MediaType.parseMediaType(mediaType);
+	}
+
+	/**
+	 * Receives every record read by {@link DataFormat#read read()}.
+	 */
+	@FunctionalInterface
+	public interface RecordHandler<T> {
+
+		/**
+		 * @param line   The line number of the record.
+		 * @param record The parsed record, null when it couldn't be parsed.
+		 * @param error  The parsing error, null when the record was parsed.
+		 */
+		void handle(long line, T record, String error);
+
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * Resolves the format of a request body.
+	 * 
+	 * @param contentType The received content type.
+	 * @return The matching format.
+	 * 
+	 * @throws ResponseStatusException When the content type is not supported.
+	 */
+	public static DataFormat of(String contentType) throws ResponseStatusException {
+		return Arrays.stream(values())
+				.filter(f -> contentType != null && f.mediaType.isCompatibleWith(MediaType.parseMediaType(contentType)))
+				.findFirst().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+						"The content type '" + contentType + "' is not supported."));
+	}
+
+	/**
+	 * Resolves the format of a response from the accepted media types, NDJSON
+	 * being the default.
+	 * 
+	 * @param accept The received accept header.
+	 * @return The preferred acceptable format.
+	 * 
+	 * @throws ResponseStatusException When none of the formats is acceptable.
+	 */
+	public static DataFormat accepting(String accept) throws ResponseStatusException {
+		List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+		MimeTypeUtils.sortBySpecificity(accepted);
+		return accepted.stream()
+				.flatMap(type -> Arrays.stream(values()).filter(f -> type.isCompatibleWith(f.mediaType))).findFirst()
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+						"The accepted types '" + accept + "' are not supported."));
+	}
+
+	/**
+	 * Reads a body one record per line. CSV bodies must start with a header line
+	 * naming the columns; blank lines are skipped.
+	 * 
+	 * @param body    The body to read.
+	 * @param type    The type of the records.
+	 * @param json    The mapper used for NDJSON records.
+	 * @param handler The receiver of every parsed or unparseable record.
+	 * 
+	 * @throws IOException When the body couldn't be read.
+	 */
+	public <T> void read(InputStream body, Class<T> type, ObjectMapper json, RecordHandler<T> handler)
+			throws IOException {
+		BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+		long line = 0;
+		ObjectReader reader;
+		if (this == CSV) {
+			String header = in.readLine();
+			line++;
+			if (header == null) {
+				return;
+			}
+			CsvSchema schema = CsvSchema.builder().addColumns(Arrays.stream(header.split(",")).map(String::trim).toList(),
+					CsvSchema.ColumnType.STRING).build();
+			reader = CSV_MAPPER.readerFor(type).with(schema);
+		} else {
+			reader = json.readerFor(type);
+		}
+		String record;
+		while ((record = in.readLine()) != null) {
+			line++;
+			if (record.isBlank()) {
+				continue;
+			}
+			try {
+				handler.handle(line, reader.readValue(record), null);
+			} catch (JsonProcessingException e) {
+				handler.handle(line, null, e.getOriginalMessage());
+			}
+		}
+	}
+
+	/**
+	 * Writes records one per line as they are consumed from the stream. CSV
+	 * bodies start with a header line naming the columns.
+	 * 
+	 * @param out     The output to write to - it is flushed but not closed.
+	 * @param records The records to write.
+	 * @param type    The type of the records.
+	 * @param view    The {@link com.fasterxml.jackson.annotation.JsonView
+	 *                @JsonView} indicator the records are written with.
+	 * @param json    The mapper used for NDJSON records.
+	 * @param columns The properties written as CSV columns.
+	 * 
+	 * @throws IOException When the output couldn't be written.
+	 */
+	public <T> void write(OutputStream out, Stream<T> records, Class<T> type, Class<?> view, ObjectMapper json,
+			String... columns) throws IOException {
+		SequenceWriter writer;
+		if (this == CSV) {
+			CsvSchema schema = CsvSchema.builder().addColumns(Arrays.asList(columns), CsvSchema.ColumnType.STRING)
+					.setUseHeader(true).build();
+			writer = CSV_MAPPER.writerFor(type).withView(view).with(schema).writeValues(out);
+		} else {
+			writer = json.writerFor(type).withView(view).withRootValueSeparator("\n")
+					.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValues(out);
+		}
+		boolean empty = true;
+		for (Iterator<T> it = records.iterator(); it.hasNext(); empty = false) {
+			writer.write(it.next());
+		}
+		writer.close();
+		if (this == NDJSON && !empty) {
+			out.write('\n');
+		}
+		out.flush();
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.Xogito.Assignment.DTOs.ProjectVersions;
+import com.Xogito.Assignment.Models.Project;
+import com.Xogito.Assignment.Models.User;
+
+/**
+ * Generates and checks the strong entity tags of the versioned entities. A
+ * user's tag is its version. A project's tag joins its own version, which also
+ * increases when its members change, with the number of members and the sum of
+ * their versions, so it changes as well when one of the listed members is
+ * updated or removed.
+ */
+public class ETags {
+
+	private ETags() {
+	}
+
+	/**
+	 * Generates the entity tag of a user.
+	 *
+	 * @param u The user.
+	 * @return The quoted entity tag.
+	 */
+	public static String of(User u) {
+		return of(u.getVersion());
+	}
+
+	/**
+	 * Generates the entity tag of a project loaded along with its members.
+	 *
+	 * @param p The project.
+	 * @return The quoted entity tag.
+	 */
+	public static String of(Project p) {
+		return of(p.getVersion(), (long) p.getUsers().size(), p.getUsers().stream().mapToLong(User::getVersion).sum());
+	}
+
+	/**
+	 * Generates the entity tag of a project out of its versions.
+	 *
+	 * @param v The versions of the project and its members.
+	 * @return The quoted entity tag.
+	 */
+	public static String of(ProjectVersions v) {
+		return of(v.getVersion(), v.getMembers(), v.getMembersVersion());
+	}
+
+	/**
+	 * Generates an entity tag out of the given versions.
+	 *
+	 * @param versions The versions identifying the representation.
+	 * @return The quoted entity tag.
+	 */
+	public static String of(Long... versions) {
+		return Arrays.stream(versions).map(String::valueOf).collect(Collectors.joining(".", "\"", "\""));
+	}
+
+	/**
+	 * Checks the {@code If-Match} precondition of a write against the current
+	 * entity tag, using the strong comparison.
+	 *
+	 * @param ifMatch The received header - null when the write is unconditional.
+	 * @param etag    The current entity tag.
+	 *
+	 * @throws ResponseStatusException When none of the given tags matches the
+	 *                                 current one.
+	 */
+	public static void checkMatch(String ifMatch, String etag) throws ResponseStatusException {
+		if (ifMatch == null || ifMatch.isBlank()) {
+			return;
+		}
+		boolean matches = Arrays.stream(ifMatch.split(",")).map(String::trim)
+				.anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+		if (!matches) {
+			throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+					"The resource was modified since the given version " + ifMatch + ".");
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.beans.PropertyDescriptor;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Computes the scalar properties of an entity changed by an update, so only
+ * those are written. The entities are compared property by property, never
+ * through their equality, so their associations are left untouched.
+ */
+public class FieldDiff {
+
+	private FieldDiff() {
+	}
+
+	/**
+	 * Reads and validates the properties sent in a partial update.
+	 *
+	 * @param fields    The received JSON object, holding only the properties to
+	 *                  update.
+	 * @param type      The updated entity's type.
+	 * @param updatable The properties that can be updated.
+	 * @param mapper    The mapper converting the values to the properties' types.
+	 * @param validator The validator checking the values against the properties'
+	 *                  constraints.
+	 * @return Map The sent values by property, in the received order.
+	 *
+	 * @throws ResponseStatusException When the body isn't a JSON object, or when it
+	 *                                 holds a property that can't be updated or an
+	 *                                 invalid value.
+	 */
+	public static Map<String, Object> read(JsonNode fields, Class<?> type, Collection<String> updatable,
+			ObjectMapper mapper, Validator validator) throws ResponseStatusException {
+		if (fields == null || !fields.isObject()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"The body must be a JSON object with the properties to update.");
+		}
+		Map<String, Object> values = new LinkedHashMap<>();
+		Iterator<Map.Entry<String, JsonNode>> it = fields.fields();
+		while (it.hasNext()) {
+			Map.Entry<String, JsonNode> field = it.next();
+			String name = field.getKey();
+			if (!updatable.contains(name)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The property '" + name + "' can't be updated.");
+			}
+			PropertyDescriptor property = BeanUtils.getPropertyDescriptor(type, name);
+			Object value;
+			try {
+				value = mapper.treeToValue(field.getValue(), property.getPropertyType());
+			} catch (JsonProcessingException | IllegalArgumentException e) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"The property '" + name + "' has an invalid value.");
+			}
+			Set<? extends ConstraintViolation<?>> violations = validator.validateValue(type, name, value);
+			if (!violations.isEmpty()) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violations.iterator().next().getMessage());
+			}
+			values.put(name, value);
+		}
+		return values;
+	}
+
+	/**
+	 * Reads the given properties of an entity, such as the ones received in a
+	 * full update.
+	 *
+	 * @param entity     The entity.
+	 * @param properties The properties to read.
+	 * @return Map The entity's values by property.
+	 */
+	public static Map<String, Object> valuesOf(Object entity, Collection<String> properties) {
+		BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+		Map<String, Object> values = new LinkedHashMap<>();
+		properties.forEach(name -> values.put(name, wrapper.getPropertyValue(name)));
+		return values;
+	}
+
+	/**
+	 * Keeps the values that differ from the current ones of an entity.
+	 *
+	 * @param current The entity as stored in the database.
+	 * @param values  The new values by property.
+	 * @return Map The changed values by property - empty when nothing changed.
+	 */
+	public static Map<String, Object> diff(Object current, Map<String, Object> values) {
+		BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(current);
+		Map<String, Object> changes = new LinkedHashMap<>();
+		values.forEach((name, value) -> {
+			if (!Objects.equals(wrapper.getPropertyValue(name), value)) {
+				changes.put(name, value);
+			}
+		});
+		return changes;
+	}
+
+	/**
+	 * Sets the given values on an entity.
+	 *
+	 * @param entity  The entity.
+	 * @param changes The values by property.
+	 */
+	public static void apply(Object entity, Map<String, Object> changes) {
+		PropertyAccessorFactory.forBeanPropertyAccess(entity).setPropertyValues(changes);
+	}
+}
@@ -0,0 +1,74 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Copies the {@code PUBLIC} schema of an HSQLDB database, its tables,
+ * indexes, sequences and rows, into an empty one, as a stand-in for restoring
+ * a replica from a backup of the primary, and then refreshes the copy's rows,
+ * as a stand-in for the replication.
+ */
+public class HsqlSnapshot {
+
+	private HsqlSnapshot() {
+	}
+
+	/**
+	 * Copies the schema and the rows of a database into another one.
+	 *
+	 * @param from The copied database.
+	 * @param to   The empty database receiving the copy - its connections must be
+	 *             writable.
+	 */
+	public static void copy(DataSource from, DataSource to) {
+		JdbcTemplate target = new JdbcTemplate(to);
+		// the SCRIPT statement lists the definitions only, in dependency order
+		new JdbcTemplate(from).queryForList("script", String.class).stream()
+				.filter(ddl -> (ddl.startsWith("CREATE ") || ddl.startsWith("ALTER ")) && ddl.contains(" PUBLIC."))
+				.forEach(target::execute);
+		refresh(from, to);
+	}
+
+	/**
+	 * Replaces the rows of a copy with the current rows of the copied database,
+	 * in a single transaction, so the copy's readers see either every previous
+	 * row or every new one.
+	 *
+	 * @param from The copied database.
+	 * @param to   The database holding the copy of its schema - its connections
+	 *             must be writable.
+	 */
+	public static void refresh(DataSource from, DataSource to) {
+		JdbcTemplate source = new JdbcTemplate(from);
+		Map<String, List<Map<String, Object>>> tables = new LinkedHashMap<>();
+		source.queryForList("select table_name from information_schema.tables "
+				+ "where table_schema = 'PUBLIC' and table_type = 'BASE TABLE'", String.class)
+				.forEach(table -> tables.put(table, source.queryForList("select * from public.\"" + table + "\"")));
+		JdbcTemplate target = new JdbcTemplate(to);
+		target.execute("set database referential integrity false");
+		try {
+			new TransactionTemplate(new DataSourceTransactionManager(to)).executeWithoutResult(status -> tables
+					.forEach((table, rows) -> {
+						target.update("delete from public.\"" + table + "\"");
+						if (rows.isEmpty()) {
+							return;
+						}
+						List<String> columns = List.copyOf(rows.get(0).keySet());
+						String insert = "insert into public.\"" + table + "\" (\"" + String.join("\", \"", columns)
+								+ "\") values (" + String.join(", ", columns.stream().map(c -> "?").toList()) + ")";
+						target.batchUpdate(insert,
+								rows.stream().map(row -> columns.stream().map(row::get).toArray()).toList());
+					}));
+		} finally {
+			target.execute("set database referential integrity true");
+		}
+	}
+}
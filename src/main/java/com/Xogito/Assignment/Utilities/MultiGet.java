@@ -0,0 +1,62 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.cache.Cache;
+
+import com.Xogito.Assignment.DTOs.MultiGetResult;
+
+/**
+ * Resolves entities by a list of ids, serving the cached ones first and loading
+ * the rest with as few {@code IN} queries as the chunk size allows.
+ */
+public class MultiGet {
+
+	private MultiGet() {
+	}
+
+	/**
+	 * Resolves the entities with the given ids.
+	 *
+	 * @param ids       The requested ids, possibly repeated.
+	 * @param cache     The cache holding the entities by id - null to always go to
+	 *                  the database.
+	 * @param type      The entities' type.
+	 * @param idOf      Function extracting the id of an entity.
+	 * @param loader    Function loading the entities with the given ids with a
+	 *                  single query.
+	 * @param chunkSize The maximum number of ids sent per query.
+	 * @param populate  Whether the loaded entities are put in the cache.
+	 * @return MultiGetResult The entities in the requested order along with the
+	 *         missing ids.
+	 */
+	public static <T> MultiGetResult<T> resolve(List<Long> ids, Cache cache, Class<T> type, Function<T, Long> idOf,
+			Function<Collection<Long>, List<T>> loader, int chunkSize, boolean populate) {
+		Map<Long, T> found = new HashMap<>();
+		List<Long> misses = new ArrayList<>();
+		for (Long id : new LinkedHashSet<>(ids)) {
+			T cached = cache == null ? null : cache.get(id, type);
+			if (cached != null) {
+				found.put(id, cached);
+			} else {
+				misses.add(id);
+			}
+		}
+		for (int from = 0; from < misses.size(); from += chunkSize) {
+			for (T entity : loader.apply(misses.subList(from, Math.min(from + chunkSize, misses.size())))) {
+				found.put(idOf.apply(entity), entity);
+				if (populate && cache != null) {
+					cache.put(idOf.apply(entity), entity);
+				}
+			}
+		}
+		return new MultiGetResult<>(ids.stream().map(found::get).toList(),
+				misses.stream().filter(id -> !found.containsKey(id)).toList());
+	}
+}
@@ -0,0 +1,234 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.Xogito.Assignment.DTOs.Suggestion;
+
+/**
+ * In-memory index answering case-insensitive prefix searches, such as the ones
+ * of a typeahead, over one or more text values of an entity. The lower-cased
+ * values are kept in three parallel sorted arrays (key, original value and id),
+ * so a search is a binary search followed by a sequential scan and the memory
+ * used is close to the one of the values themselves.
+ * <p>
+ * Writes are buffered in a small sorted delta (and a set of removed entries)
+ * that is merged with the arrays once it grows past a fraction of their size,
+ * so a single write doesn't copy the whole index.
+ */
+public class PrefixIndex {
+
+	private static final int MIN_MERGE_SIZE = 1024;
+
+	private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingLong(Entry::id);
+
+	/**
+	 * An indexed value, identified by its key and id regardless of its case.
+	 */
+	private record Entry(String key, String value, long id) {
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Entry e && key.equals(e.key) && id == e.id;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * key.hashCode() + Long.hashCode(id);
+		}
+	}
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private String[] keys = new String[0];
+	private String[] values = new String[0];
+	private long[] ids = new long[0];
+	private final NavigableSet<Entry> added = new TreeSet<>(ORDER);
+	private final Set<Entry> removed = new HashSet<>();
+
+	/**
+	 * Indexes the given values of an entity.
+	 *
+	 * @param id    The entity's id - entities without an id are ignored.
+	 * @param texts The values to index - null values are ignored.
+	 */
+	public void put(Long id, String... texts) {
+		if (id == null) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			for (String value : texts) {
+				if (value == null) {
+					continue;
+				}
+				Entry e = entry(id, value);
+				int i = indexOf(e);
+				added.remove(e);
+				if (i >= 0 && values[i].equals(e.value())) {
+					removed.remove(e);
+				} else {
+					if (i >= 0) {
+						removed.add(e);
+					}
+					added.add(e);
+				}
+			}
+			mergeIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the given values of an entity from the index.
+	 *
+	 * @param id    The entity's id.
+	 * @param texts The previously indexed values - null values are ignored.
+	 */
+	public void remove(Long id, String... texts) {
+		if (id == null) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			for (String value : texts) {
+				if (value == null) {
+					continue;
+				}
+				Entry e = entry(id, value);
+				added.remove(e);
+				if (indexOf(e) >= 0) {
+					removed.add(e);
+				}
+			}
+			mergeIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Retrieves the first entities, by their lower-cased value and id, with a
+	 * value starting with the given prefix, ignoring the case. An entity matching
+	 * with several values is retrieved once, with its first matching value.
+	 *
+	 * @param prefix The searched prefix.
+	 * @param limit  The maximum number of entities to retrieve.
+	 * @return List The matching entities along with their matching value.
+	 */
+	public List<Suggestion> search(String prefix, int limit) {
+		String key = normalize(prefix);
+		List<Suggestion> found = new ArrayList<>(Math.min(limit, 64));
+		Set<Long> seen = new HashSet<>();
+		lock.readLock().lock();
+		try {
+			int i = lowerBound(new Entry(key, null, Long.MIN_VALUE));
+			Iterator<Entry> delta = added.tailSet(new Entry(key, null, Long.MIN_VALUE), true).iterator();
+			Entry next = delta.hasNext() ? delta.next() : null;
+			while (found.size() < limit) {
+				Entry e;
+				if (i < keys.length && (next == null || ORDER.compare(baseAt(i), next) < 0)) {
+					e = baseAt(i++);
+					if (!removed.isEmpty() && removed.contains(e)) {
+						continue;
+					}
+				} else if (next != null) {
+					e = next;
+					next = delta.hasNext() ? delta.next() : null;
+				} else {
+					break;
+				}
+				if (!e.key().startsWith(key)) {
+					break;
+				}
+				if (seen.add(e.id())) {
+					found.add(new Suggestion(e.id(), e.value()));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return found;
+	}
+
+	private Entry baseAt(int i) {
+		return new Entry(keys[i], values[i], ids[i]);
+	}
+
+	private int indexOf(Entry e) {
+		int i = lowerBound(e);
+		return i < keys.length && keys[i].equals(e.key()) && ids[i] == e.id() ? i : -1;
+	}
+
+	private int lowerBound(Entry e) {
+		int low = 0;
+		int high = keys.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int cmp = keys[mid].compareTo(e.key());
+			if (cmp == 0) {
+				cmp = Long.compare(ids[mid], e.id());
+			}
+			if (cmp < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private void mergeIfNeeded() {
+		if (added.size() + removed.size() < Math.max(MIN_MERGE_SIZE, keys.length / 8)) {
+			return;
+		}
+		int size = keys.length - removed.size() + added.size();
+		String[] mKeys = new String[size];
+		String[] mValues = new String[size];
+		long[] mIds = new long[size];
+		Iterator<Entry> delta = added.iterator();
+		Entry next = delta.hasNext() ? delta.next() : null;
+		int i = 0;
+		int m = 0;
+		while (i < keys.length || next != null) {
+			Entry e;
+			if (i < keys.length && (next == null || ORDER.compare(baseAt(i), next) < 0)) {
+				e = baseAt(i++);
+				if (removed.contains(e)) {
+					continue;
+				}
+			} else {
+				e = next;
+				next = delta.hasNext() ? delta.next() : null;
+			}
+			mKeys[m] = e.key();
+			mValues[m] = e.value();
+			mIds[m++] = e.id();
+		}
+		keys = Arrays.copyOf(mKeys, m);
+		values = Arrays.copyOf(mValues, m);
+		ids = Arrays.copyOf(mIds, m);
+		added.clear();
+		removed.clear();
+	}
+
+	private static Entry entry(Long id, String value) {
+		// toLowerCase returns the same instance when there's nothing to lower, so
+		// lower-case values such as emails are stored once
+		return new Entry(normalize(value), value, id);
+	}
+
+	private static String normalize(String value) {
+		return value.toLowerCase(Locale.ROOT);
+	}
+}
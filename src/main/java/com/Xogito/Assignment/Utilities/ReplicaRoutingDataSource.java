@@ -0,0 +1,179 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Routes the connections of the read-only transactions to the replicas, in
+ * turns, and every other connection to the primary. A read-only transaction
+ * of a client starting less than the replication lag after one of its own
+ * write transactions committed is routed to the primary as well, so a read
+ * following a write, such as the project returned by an assignment, never
+ * misses it on a lagging replica, while the other clients keep reading from
+ * the replicas.
+ * <p>
+ * The client is the current thread unless it's {@link #bind(long, LongConsumer)
+ * bound} to another one, such as the sender of the request it serves, which
+ * carries the time of its last write between requests.
+ * <p>
+ * The reads loading the shared caches are {@link #onPrimary(Supplier) pinned}
+ * to the primary, so a lagging replica never caches a row older than a write
+ * the other clients were already told about.
+ * <p>
+ * The connection is routed when its first statement runs, once the
+ * transaction is known to be read-only, so this data source must be used
+ * through the {@link LazyConnectionDataSourceProxy} returned by
+ * {@link #of(DataSource, List, Duration)}. The routed connections are counted
+ * by the {@code datasource.routed} metric, tagged with their target and the
+ * reason it was chosen.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String METRIC = "datasource.routed";
+
+	private static final String PRIMARY = "primary";
+
+	private final int replicas;
+
+	private static final ThreadLocal<Client> CLIENT = ThreadLocal.withInitial(() -> new Client(0, written -> {
+	}));
+
+	private static final ThreadLocal<Boolean> PINNED = ThreadLocal.withInitial(() -> false);
+
+	private final long replicationLagMillis;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	private final Counter untransacted = Metrics.counter(METRIC, "target", PRIMARY, "reason", "no-transaction");
+
+	private final Counter pinned = Metrics.counter(METRIC, "target", PRIMARY, "reason", "pinned");
+
+	private final Counter written = Metrics.counter(METRIC, "target", PRIMARY, "reason", "write");
+
+	private final Counter afterWrite = Metrics.counter(METRIC, "target", PRIMARY, "reason", "recent-write");
+
+	private final Counter read = Metrics.counter(METRIC, "target", "replica", "reason", "read-only");
+
+	private ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration replicationLag) {
+		this.replicas = replicas.size();
+		this.replicationLagMillis = replicationLag.toMillis();
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			targets.put(i, replicas.get(i));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	/**
+	 * Builds the routing data source behind the proxy fetching its connections
+	 * when their first statement runs.
+	 *
+	 * @param primary        The primary database, serving every write.
+	 * @param replicas       The read replicas.
+	 * @param replicationLag The time the reads are still served by the primary
+	 *                       after a write.
+	 * @return The data source to use.
+	 */
+	public static DataSource of(DataSource primary, List<DataSource> replicas, Duration replicationLag) {
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas, replicationLag));
+	}
+
+	/**
+	 * Binds the current thread to a client until {@link #unbind()} is called.
+	 *
+	 * @param lastWrite The epoch millis the client's last write committed at - 0
+	 *                  when unknown.
+	 * @param onWrite   Receives the epoch millis every write of the client
+	 *                  commits at, to hand them back to it.
+	 */
+	public static void bind(long lastWrite, LongConsumer onWrite) {
+		CLIENT.set(new Client(lastWrite, onWrite));
+	}
+
+	/**
+	 * Makes the current thread its own client again.
+	 */
+	public static void unbind() {
+		CLIENT.remove();
+	}
+
+	/**
+	 * Routes every connection the current thread fetches while running a read to
+	 * the primary, such as a load shared with the other clients through a cache.
+	 *
+	 * @param read The read.
+	 * @return The read's result.
+	 */
+	public static <T> T onPrimary(Supplier<T> read) {
+		boolean outer = PINNED.get();
+		PINNED.set(true);
+		try {
+			return read.get();
+		} finally {
+			PINNED.set(outer);
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			untransacted.increment();
+			return PRIMARY;
+		}
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCommit() {
+					Client client = CLIENT.get();
+					client.lastWrite = System.currentTimeMillis();
+					client.onWrite.accept(client.lastWrite);
+				}
+
+			});
+			written.increment();
+			return PRIMARY;
+		}
+		if (PINNED.get()) {
+			pinned.increment();
+			return PRIMARY;
+		}
+		if (System.currentTimeMillis() - CLIENT.get().lastWrite < replicationLagMillis) {
+			afterWrite.increment();
+			return PRIMARY;
+		}
+		read.increment();
+		return Math.floorMod(next.getAndIncrement(), replicas);
+	}
+
+	private static class Client {
+
+		private long lastWrite;
+
+		private final LongConsumer onWrite;
+
+		private Client(long lastWrite, LongConsumer onWrite) {
+			this.lastWrite = lastWrite;
+			this.onWrite = onWrite;
+		}
+
+	}
+}
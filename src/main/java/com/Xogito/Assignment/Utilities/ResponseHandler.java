@@ -1,8 +1,10 @@
 package com.Xogito.Assignment.Utilities;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -16,6 +18,18 @@ import jakarta.validation.ConstraintViolationException;
 @ControllerAdvice
 public class ResponseHandler {
 
+	/**
+	 * Header carrying the cursor of the following page on keyset paginated
+	 * responses.
+	 */
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	/**
+	 * Header carrying the total number of entities on paginated responses that
+	 * request it.
+	 */
+	public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
 	/**
 	 * Generates an HTTP response body with a message.
 	 * 
@@ -40,6 +54,76 @@ public class ResponseHandler {
 		return new ResponseEntity<>(data, status);
 	}
 
+	/**
+	 * Generates an HTTP response body with a given versioned entity, sending its
+	 * entity tag in the {@code ETag} header.
+	 * 
+	 * @param data   The entity to send.
+	 * @param etag   The quoted entity tag of the entity.
+	 * @param status The HTTP's response status code.
+	 * @return A JSON formatted response with the given entity.
+	 */
+	public static ResponseEntity<?> handleVersionedResponses(Object data, String etag, HttpStatus status) {
+		return ResponseEntity.status(status).eTag(etag).body(data);
+	}
+
+	/**
+	 * Generates an HTTP response body with a given versioned entity holding the
+	 * first page of a keyset paginated list, sending its entity tag in the
+	 * {@code ETag} header and the cursor of the list's following page, if any,
+	 * in the {@value #NEXT_CURSOR_HEADER} header.
+	 * 
+	 * @param data       The entity to send.
+	 * @param etag       The quoted entity tag of the entity.
+	 * @param nextCursor The cursor of the following page, null when there is none.
+	 * @param status     The HTTP's response status code.
+	 * @return A JSON formatted response with the given entity.
+	 */
+	public static ResponseEntity<?> handleVersionedResponses(Object data, String etag, String nextCursor,
+			HttpStatus status) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.status(status).eTag(etag);
+		if (nextCursor != null) {
+			response.header(NEXT_CURSOR_HEADER, nextCursor);
+		}
+		return response.body(data);
+	}
+
+	/**
+	 * Generates an HTTP response body with a paginated list of entities. The
+	 * total number of entities, when given, is sent in the
+	 * {@value #TOTAL_COUNT_HEADER} header.
+	 *
+	 * @param data   The entities to send.
+	 * @param total  The total number of entities, null when it wasn't requested.
+	 * @param status The HTTP's response status code.
+	 * @return A JSON formatted response with the given entities.
+	 */
+	public static ResponseEntity<?> handleCountedResponses(List<?> data, Long total, HttpStatus status) {
+		HttpHeaders headers = new HttpHeaders();
+		if (total != null) {
+			headers.set(TOTAL_COUNT_HEADER, total.toString());
+		}
+		return new ResponseEntity<>(data, headers, status);
+	}
+
+	/**
+	 * Generates an HTTP response body with a keyset paginated list of entities.
+	 * The cursor of the following page, if any, is sent in the
+	 * {@value #NEXT_CURSOR_HEADER} header.
+	 *
+	 * @param data       The entities to send.
+	 * @param nextCursor The cursor of the following page, null when there is none.
+	 * @param status     The HTTP's response status code.
+	 * @return A JSON formatted response with the given entities.
+	 */
+	public static ResponseEntity<?> handleCursorResponses(List<?> data, String nextCursor, HttpStatus status) {
+		HttpHeaders headers = new HttpHeaders();
+		if (nextCursor != null) {
+			headers.set(NEXT_CURSOR_HEADER, nextCursor);
+		}
+		return new ResponseEntity<>(data, headers, status);
+	}
+
 	/**
 	 * Captures a ResponseStatusException instance to generate an HTTP response with
 	 * the given exception's data
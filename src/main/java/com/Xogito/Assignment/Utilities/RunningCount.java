@@ -0,0 +1,54 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Total number of entities, read once from the database and then maintained by
+ * the writes creating and removing them, so the listings can report it without
+ * a count query. The writes made while the total is read are kept and added to
+ * it.
+ */
+public class RunningCount {
+
+	private final AtomicLong total = new AtomicLong();
+	private volatile boolean ready;
+
+	/**
+	 * Drops the writes added so far, right before the total is read from the
+	 * database, which already counts them.
+	 */
+	public void start() {
+		total.set(0);
+	}
+
+	/**
+	 * Adds the total read from the database to the writes made since
+	 * {@link #start start()}, after which the count is reported.
+	 *
+	 * @param counted The number of entities read from the database.
+	 */
+	public void markReady(long counted) {
+		total.addAndGet(counted);
+		ready = true;
+	}
+
+	/**
+	 * Adds the entities created, or subtracts the removed ones, to the total.
+	 *
+	 * @param delta The number of created entities - negative for removals.
+	 */
+	public void add(long delta) {
+		total.addAndGet(delta);
+	}
+
+	/**
+	 * Retrieves the total number of entities.
+	 *
+	 * @param fallback The count query used until the total is read.
+	 * @return The number of entities in the database.
+	 */
+	public long get(LongSupplier fallback) {
+		return ready ? total.get() : fallback.getAsLong();
+	}
+}
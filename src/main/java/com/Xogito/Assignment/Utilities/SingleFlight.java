@@ -0,0 +1,74 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the load
+ * and every caller arriving while it's in flight waits for it and gets the same
+ * result, or the same exception, instead of issuing its own query. Nothing is
+ * kept once the load completes, so a joined load may predate a write that
+ * completed while it was in flight, just like a read issued right before it.
+ * <p>
+ * The calls are counted by the {@code singleflight.calls} metric, tagged with
+ * the given name and whether each call ran the load or joined one.
+ */
+public class SingleFlight<K, V> {
+
+	public static final String METRIC = "singleflight.calls";
+
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	private final Counter loaded;
+
+	private final Counter coalesced;
+
+	/**
+	 * @param name The name of the coalesced lookup, tagging its metrics.
+	 */
+	public SingleFlight(String name) {
+		loaded = Metrics.counter(METRIC, "name", name, "result", "loaded");
+		coalesced = Metrics.counter(METRIC, "name", name, "result", "coalesced");
+	}
+
+	/**
+	 * Loads the value of a key, joining the load already in flight for it if
+	 * any.
+	 *
+	 * @param key    The key.
+	 * @param loader The load of the key's value.
+	 * @return The loaded value.
+	 */
+	public V load(K key, Supplier<V> loader) {
+		CompletableFuture<V> flight = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+		if (running != null) {
+			coalesced.increment();
+			try {
+				return running.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof Error error) {
+					throw error;
+				}
+				throw (RuntimeException) e.getCause();
+			}
+		}
+		loaded.increment();
+		try {
+			V value = loader.get();
+			flight.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, flight);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Reads the {@code fields} parameter of the sparse fieldsets, which lists the
+ * properties of an entity to read and send instead of the whole entity.
+ */
+public class SparseFields {
+
+	private SparseFields() {
+	}
+
+	/**
+	 * Checks the requested properties against the selectable ones. The id is
+	 * always included first, since it identifies the entity and positions the
+	 * keyset cursors.
+	 *
+	 * @param fields     The requested properties, in the order they'll be sent.
+	 * @param selectable The properties that can be requested.
+	 * @return List The properties to read, without repetitions.
+	 *
+	 * @throws ResponseStatusException When a requested property can't be selected.
+	 */
+	public static List<String> parse(Collection<String> fields, Collection<String> selectable)
+			throws ResponseStatusException {
+		Set<String> parsed = new LinkedHashSet<>();
+		parsed.add("id");
+		for (String field : fields) {
+			String name = field.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+			if (!selectable.contains(name)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The field '" + name + "' can't be selected.");
+			}
+			parsed.add(name);
+		}
+		return new ArrayList<>(parsed);
+	}
+}
@@ -0,0 +1,167 @@
+package com.Xogito.Assignment.Utilities;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index answering case-insensitive "contains" searches over a
+ * text value of an entity, such as its name. Every value is lower-cased and
+ * split into its overlapping three character sequences, and every sequence
+ * keeps the ids of the entities containing it in ascending order. A search
+ * intersects the ids of the query's trigrams, starting by the rarest one, and
+ * confirms every candidate against the stored value. Every trigram counts its
+ * ids as they're written, so the rarest one is picked without walking them.
+ * <p>
+ * Searches are lock-free; writes are serialized between them. The index
+ * answers nothing until it's {@link #markReady() marked as ready}, so the
+ * caller can fall back to the database while it's being built.
+ */
+public class TrigramIndex {
+
+	/**
+	 * The shortest query the index is able to answer.
+	 */
+	public static final int MIN_QUERY_LENGTH = 3;
+
+	private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+	private final Map<Long, String> values = new ConcurrentHashMap<>();
+	private volatile boolean ready;
+
+	/**
+	 * Indexes the value of an entity, replacing its previous value if any.
+	 *
+	 * @param id    The entity's id - entities without an id are ignored.
+	 * @param value The value to index - a null value removes the entity.
+	 */
+	public synchronized void put(Long id, String value) {
+		if (id == null) {
+			return;
+		}
+		if (value == null) {
+			remove(id);
+			return;
+		}
+		String normalized = normalize(value);
+		String old = values.put(id, normalized);
+		if (normalized.equals(old)) {
+			return;
+		}
+		if (old != null) {
+			Set<String> kept = trigrams(normalized);
+			trigrams(old).stream().filter(t -> !kept.contains(t)).forEach(t -> unlink(t, id));
+		}
+		trigrams(normalized).forEach(t -> {
+			Postings p = postings.computeIfAbsent(t, k -> new Postings(new ConcurrentSkipListSet<>(), new LongAdder()));
+			if (p.ids().add(id)) {
+				p.size().increment();
+			}
+		});
+	}
+
+	/**
+	 * Removes an entity from the index.
+	 *
+	 * @param id The entity's id.
+	 */
+	public synchronized void remove(Long id) {
+		String old = id == null ? null : values.remove(id);
+		if (old != null) {
+			trigrams(old).forEach(t -> unlink(t, id));
+		}
+	}
+
+	/**
+	 * Marks the index as completely built, so it starts answering searches.
+	 */
+	public void markReady() {
+		ready = true;
+	}
+
+	/**
+	 * Checks whether the index is able to answer the given query.
+	 *
+	 * @param query The searched value.
+	 * @return true when the index is ready and the query is long enough.
+	 */
+	public boolean canSearch(String query) {
+		return ready && query != null && normalize(query).length() >= MIN_QUERY_LENGTH;
+	}
+
+	/**
+	 * Retrieves a page of the ids of the entities whose value contains the given
+	 * query, ignoring the case. The ids are sorted in ascending order so the
+	 * pages are stable between requests.
+	 *
+	 * @param query The searched value - must be able to be searched.
+	 * @param page  The current page number.
+	 * @param size  The size of the current page.
+	 * @return List The ids of the matching entities in the requested page.
+	 */
+	public List<Long> search(String query, int page, int size) {
+		return matches(query).skip((long) page * size).limit(size).toList();
+	}
+
+	/**
+	 * Counts the entities whose value contains the given query, ignoring the
+	 * case.
+	 *
+	 * @param query The searched value - must be able to be searched.
+	 * @return The number of matching entities.
+	 */
+	public long count(String query) {
+		return matches(query).count();
+	}
+
+	private Stream<Long> matches(String query) {
+		String normalized = normalize(query);
+		List<NavigableSet<Long>> sets = trigrams(normalized).stream()
+				.map(t -> postings.getOrDefault(t, Postings.EMPTY))
+				.sorted(Comparator.comparingLong(p -> p.size().sum())).map(Postings::ids).toList();
+		NavigableSet<Long> rarest = sets.get(0);
+		List<NavigableSet<Long>> others = sets.subList(1, sets.size());
+		return rarest.stream().filter(id -> others.stream().allMatch(s -> s.contains(id))).filter(id -> {
+			String value = values.get(id);
+			return value != null && value.contains(normalized);
+		});
+	}
+
+	private void unlink(String trigram, Long id) {
+		postings.computeIfPresent(trigram, (t, p) -> {
+			if (p.ids().remove(id)) {
+				p.size().decrement();
+			}
+			return p.ids().isEmpty() ? null : p;
+		});
+	}
+
+	/**
+	 * The ids of the entities containing a trigram, along with their number:
+	 * the size of a {@link ConcurrentSkipListSet} is computed by walking it.
+	 */
+	private record Postings(NavigableSet<Long> ids, LongAdder size) {
+
+		static final Postings EMPTY = new Postings(new TreeSet<>(), new LongAdder());
+
+	}
+
+	private static String normalize(String value) {
+		return value.toLowerCase(Locale.ROOT);
+	}
+
+	private static Set<String> trigrams(String value) {
+		Set<String> trigrams = new TreeSet<>();
+		for (int i = 0; i + MIN_QUERY_LENGTH <= value.length(); i++) {
+			trigrams.add(value.substring(i, i + MIN_QUERY_LENGTH));
+		}
+		return trigrams;
+	}
+}
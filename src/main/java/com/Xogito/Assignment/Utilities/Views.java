@@ -9,4 +9,16 @@ public class Views {
 	
 	public interface fullDataView extends coreDataView {};
 
+	/**
+	 * Checks whether a view serializes the project's members, so the matching
+	 * fetch plan can be chosen before loading the projects.
+	 * 
+	 * @param view The {@link com.fasterxml.jackson.annotation.JsonView @JsonView}
+	 *             indicator used by the controller.
+	 * @return True when the project's users must be loaded.
+	 */
+	public static boolean includesMembers(Class<?> view) {
+		return fullDataView.class.isAssignableFrom(view);
+	}
+
 }
@@ -24,6 +24,7 @@ insert into user (id, name, email) values (12, 'Huey Ferriman', 'hferrimanb@unc.
 insert into user (id, name, email) values (13, 'Moria Biddlecombe', 'mbiddlecombec@yolasite.com');
 insert into user (id, name, email) values (14, 'Glenden Hadwen', 'ghadwend@epa.gov');
 insert into user (id, name, email) values (15, 'Maurise Glanester', 'mglanestere@imgur.com');
+alter sequence user_seq restart with 100;
 
 insert into project_users (project_id, users_id) values (1,2);
 insert into project_users (project_id, users_id) values (1,5);
@@ -0,0 +1,5 @@
+create table if not exists user (id bigint not null primary key, name varchar(255), email varchar(255) not null, version bigint default 0 not null);
+create index if not exists ix_user_name on user (name);
+create table if not exists user_email (email varchar(255) not null primary key, user_id bigint not null);
+create sequence if not exists user_seq start with 1 increment by 500;
+alter sequence user_seq increment by 500;
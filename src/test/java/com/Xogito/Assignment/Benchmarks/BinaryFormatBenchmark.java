@@ -0,0 +1,133 @@
+package com.Xogito.Assignment.Benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.Xogito.Assignment.AssignmentApplication;
+import com.Xogito.Assignment.Models.Project;
+import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Utilities.Views;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the payload size and the encoding and decoding time of JSON, CBOR
+ * and Smile for the list responses at the usual page sizes: users, and projects
+ * embedding {@value #MEMBERS} members with the full data view. The mappers are
+ * the ones used by the message converters, so they share the application's
+ * Jackson settings.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class BinaryFormatBenchmark {
+
+	private static final int[] PAGE_SIZES = { 5, 50, 500 };
+	private static final int MEMBERS = 10;
+	private static final long WARMUP_MILLIS = 500;
+	private static final long MEASURE_MILLIS = 1_000;
+
+	private record Format(String name, ObjectMapper mapper) {
+	}
+
+	private interface Codec {
+
+		void run() throws IOException;
+
+	}
+
+	@Test
+	void payloadSizeAndSpeed() throws IOException {
+		try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(AssignmentApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:hsqldb:mem:benchmark-formats", "--spring.sql.init.mode=never")) {
+			List<Format> formats = List.of(new Format("json", ctx.getBean(ObjectMapper.class)),
+					new Format("cbor", ctx.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper()),
+					new Format("smile", ctx.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper()));
+			System.out.printf("%n%-10s %6s %-6s %10s %10s %12s %12s%n", "payload", "size", "format", "bytes", "vs json",
+					"encode us", "decode us");
+			for (int size : PAGE_SIZES) {
+				List<User> users = users(size, 0);
+				List<Project> projects = projects(size);
+				long jsonUsers = 0;
+				long jsonProjects = 0;
+				for (Format f : formats) {
+					byte[] userBytes = f.mapper().writerWithView(Views.coreDataView.class).writeValueAsBytes(users);
+					byte[] projectBytes = f.mapper().writerWithView(Views.fullDataView.class).writeValueAsBytes(projects);
+					if (f.name().equals("json")) {
+						jsonUsers = userBytes.length;
+						jsonProjects = projectBytes.length;
+					}
+					List<User> decodedUsers = f.mapper().readValue(userBytes, new TypeReference<List<User>>() {
+					});
+					List<Project> decodedProjects = f.mapper().readValue(projectBytes, new TypeReference<List<Project>>() {
+					});
+					assertEquals(users.get(size - 1).getEmail(), decodedUsers.get(size - 1).getEmail());
+					assertEquals(MEMBERS, decodedProjects.get(size - 1).getUsers().size());
+					print("users", size, f.name(), userBytes.length, jsonUsers,
+							time(() -> f.mapper().writerWithView(Views.coreDataView.class).writeValueAsBytes(users)),
+							time(() -> f.mapper().readValue(userBytes, new TypeReference<List<User>>() {
+							})));
+					print("projects", size, f.name(), projectBytes.length, jsonProjects,
+							time(() -> f.mapper().writerWithView(Views.fullDataView.class).writeValueAsBytes(projects)),
+							time(() -> f.mapper().readValue(projectBytes, new TypeReference<List<Project>>() {
+							})));
+					if (!f.name().equals("json")) {
+						assertTrue(projectBytes.length < jsonProjects);
+					}
+				}
+			}
+			System.out.println();
+		}
+	}
+
+	private static List<User> users(int count, int first) {
+		return IntStream.range(first, first + count).mapToObj(
+				i -> new User((long) i + 1, "Benchmark User " + i, "benchmark.user" + i + "@mail.com")).toList();
+	}
+
+	private static List<Project> projects(int count) {
+		return IntStream.range(0, count).mapToObj(i -> new Project((long) i + 1, "Benchmark Project " + i,
+				"description of the benchmark project number " + i, new LinkedHashSet<>(users(MEMBERS, i * MEMBERS))))
+				.toList();
+	}
+
+	private static void print(String payload, int size, String format, long bytes, long jsonBytes, double encode,
+			double decode) {
+		System.out.printf("%-10s %6d %-6s %10d %9.0f%% %12.1f %12.1f%n", payload, size, format, bytes,
+				bytes * 100.0 / jsonBytes, encode, decode);
+	}
+
+	/**
+	 * @return The mean time of an operation in microseconds.
+	 */
+	private static double time(Codec op) throws IOException {
+		loop(op, WARMUP_MILLIS);
+		long start = System.nanoTime();
+		long ops = loop(op, MEASURE_MILLIS);
+		return (System.nanoTime() - start) / 1_000.0 / ops;
+	}
+
+	private static long loop(Codec op, long millis) throws IOException {
+		long end = System.currentTimeMillis() + millis;
+		long ops = 0;
+		while (System.currentTimeMillis() < end) {
+			op.run();
+			ops++;
+		}
+		return ops;
+	}
+}
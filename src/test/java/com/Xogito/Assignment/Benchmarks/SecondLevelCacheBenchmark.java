@@ -0,0 +1,107 @@
+package com.Xogito.Assignment.Benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Xogito.Assignment.AssignmentApplication;
+import com.Xogito.Assignment.Models.Project;
+import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Repositories.ProjectRepository;
+import com.Xogito.Assignment.Repositories.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Compares the read throughput of the repositories with and without the
+ * {@code l2cache} profile. Every operation runs in its own transaction, so the
+ * persistence context never serves a repeated read, and loads a user by id, a
+ * user by email and a project along with its members.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SecondLevelCacheBenchmark {
+
+	private static final int USERS = 2_000;
+	private static final int PROJECTS = 200;
+	private static final int MEMBERS = 10;
+	private static final long WARMUP_MILLIS = 2_000;
+	private static final long MEASURE_MILLIS = 5_000;
+
+	private record Result(String name, double opsPerSecond, long cacheHits) {
+	}
+
+	@Test
+	void readThroughput() {
+		Result plain = run("no second-level cache");
+		Result cached = run("l2cache profile", "l2cache");
+		System.out.printf("%n%-24s %12s %12s%n", "configuration", "ops/s", "cache hits");
+		for (Result r : List.of(plain, cached)) {
+			System.out.printf("%-24s %12.0f %12d%n", r.name(), r.opsPerSecond(), r.cacheHits());
+		}
+		System.out.printf("speedup: %.2fx%n%n", cached.opsPerSecond() / plain.opsPerSecond());
+		assertTrue(cached.cacheHits() > 0);
+	}
+
+	private Result run(String name, String... profiles) {
+		try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(AssignmentApplication.class)
+				.web(WebApplicationType.NONE).profiles(profiles)
+				.run("--spring.datasource.url=jdbc:hsqldb:mem:benchmark-" + profiles.length, "--spring.sql.init.mode=never",
+						"--spring.jpa.properties.hibernate.generate_statistics=true",
+						"--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn")) {
+			UserRepository uRepo = ctx.getBean(UserRepository.class);
+			ProjectRepository pRepo = ctx.getBean(ProjectRepository.class);
+			TransactionTemplate tx = ctx.getBean(TransactionTemplate.class);
+			List<User> users = seed(uRepo, pRepo);
+			List<Long> projectIds = pRepo.findAll().stream().map(Project::getId).toList();
+			Random random = new Random(42);
+			Runnable op = () -> tx.executeWithoutResult(status -> {
+				User u = users.get(random.nextInt(users.size()));
+				uRepo.findById(u.getId()).orElseThrow();
+				uRepo.findByEmail(u.getEmail()).orElseThrow();
+				pRepo.findById(projectIds.get(random.nextInt(projectIds.size()))).orElseThrow().getUsers().size();
+			});
+			loop(op, WARMUP_MILLIS);
+			Statistics stats = ctx.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+			stats.clear();
+			long ops = loop(op, MEASURE_MILLIS);
+			return new Result(name, ops * 1000.0 / MEASURE_MILLIS,
+					stats.getSecondLevelCacheHitCount() + stats.getQueryCacheHitCount());
+		}
+	}
+
+	private List<User> seed(UserRepository uRepo, ProjectRepository pRepo) {
+		uRepo.insertAll(IntStream.range(0, USERS)
+				.mapToObj(i -> new User(null, "Benchmark User " + i, "benchmark" + i + "@mail.com")).toList());
+		List<User> users = uRepo.findAll();
+		for (int i = 0; i < PROJECTS; i++) {
+			int first = i;
+			Project p = pRepo.save(new Project(null, "Benchmark Project " + i, "benchmark project " + i, null));
+			pRepo.addUsers(p.getId(), IntStream.range(0, MEMBERS)
+					.mapToObj(m -> users.get((first + m * PROJECTS) % users.size()).getId()).toList());
+		}
+		return users;
+	}
+
+	private static long loop(Runnable op, long millis) {
+		long end = System.currentTimeMillis() + millis;
+		long ops = 0;
+		while (System.currentTimeMillis() < end) {
+			op.run();
+			ops++;
+		}
+		return ops;
+	}
+}
@@ -0,0 +1,181 @@
+package com.Xogito.Assignment.Benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.Xogito.Assignment.AssignmentApplication;
+import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Repositories.UserRepository;
+
+/**
+ * Compares the throughput and the latency of a blocking endpoint served on
+ * Tomcat's platform threads and on virtual threads, with the
+ * {@code virtual-threads} profile. Every query is delayed by
+ * {@value #QUERY_LATENCY_MILLIS} ms to stand in for a slow database, and
+ * {@value #CLIENTS} clients send requests back to back. Tomcat's pool is
+ * bounded to {@value #PLATFORM_THREADS} threads and both modes share a pool of
+ * {@value #POOL_SIZE} connections, so only the threads differ.
+ * <p>
+ * Needs Java 21. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class VirtualThreadsBenchmark {
+
+	private static final long QUERY_LATENCY_MILLIS = 200;
+	private static final int CLIENTS = 100;
+	private static final int PLATFORM_THREADS = 20;
+	private static final int POOL_SIZE = 100;
+	private static final int PAGE_SIZE = 10;
+	private static final long WARMUP_MILLIS = 3_000;
+	private static final long MEASURE_MILLIS = 10_000;
+
+	private record Result(String name, double requestsPerSecond, double p50, double p99) {
+	}
+
+	@Test
+	void blockingThroughput() throws Exception {
+		assumeTrue(Runtime.version().feature() >= 21, "The virtual threads need Java 21.");
+		Result platform = run("platform threads");
+		Result virtual = run("virtual threads", "virtual-threads");
+		System.out.printf("%n%-18s %10s %10s %10s%n", "mode", "req/s", "p50 ms", "p99 ms");
+		for (Result r : List.of(platform, virtual)) {
+			System.out.printf("%-18s %10.0f %10.1f %10.1f%n", r.name(), r.requestsPerSecond(), r.p50(), r.p99());
+		}
+		System.out.println();
+		assertTrue(virtual.requestsPerSecond() > platform.requestsPerSecond());
+	}
+
+	private Result run(String name, String... profiles) throws Exception {
+		AtomicBoolean slow = new AtomicBoolean();
+		try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(AssignmentApplication.class)
+				.profiles(profiles)
+				.initializers(c -> c.getBeanFactory().addBeanPostProcessor(new QueryLatency(slow)))
+				.run("--server.port=0", "--spring.datasource.url=jdbc:hsqldb:mem:benchmark-threads-" + profiles.length,
+						"--spring.sql.init.mode=never", "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+						"--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE)) {
+			ctx.getBean(UserRepository.class).insertAll(IntStream.range(0, PAGE_SIZE)
+					.mapToObj(i -> new User(null, "Benchmark User " + i, "benchmark" + i + "@mail.com")).toList());
+			int port = ((WebServerApplicationContext) ctx).getWebServer().getPort();
+			URI uri = URI.create("http://localhost:" + port + "/api/users?page=0&size=" + PAGE_SIZE);
+			slow.set(true);
+			HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+			ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+			try {
+				load(clients, http, uri, WARMUP_MILLIS);
+				List<Long> latencies = load(clients, http, uri, MEASURE_MILLIS);
+				Collections.sort(latencies);
+				return new Result(name, latencies.size() * 1000.0 / MEASURE_MILLIS, percentile(latencies, 0.50),
+						percentile(latencies, 0.99));
+			} finally {
+				clients.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * @return The latency of every completed request in nanoseconds.
+	 */
+	private static List<Long> load(ExecutorService clients, HttpClient http, URI uri, long millis)
+			throws Exception {
+		long end = System.currentTimeMillis() + millis;
+		HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+		List<Future<List<Long>>> calls = new ArrayList<>();
+		for (int i = 0; i < CLIENTS; i++) {
+			calls.add(clients.submit(() -> {
+				List<Long> latencies = new ArrayList<>();
+				while (System.currentTimeMillis() < end) {
+					long start = System.nanoTime();
+					HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+					latencies.add(System.nanoTime() - start);
+					assertEquals(200, response.statusCode());
+				}
+				return latencies;
+			}));
+		}
+		List<Long> latencies = new ArrayList<>();
+		for (Future<List<Long>> call : calls) {
+			latencies.addAll(call.get());
+		}
+		return latencies;
+	}
+
+	private static double percentile(List<Long> sorted, double p) {
+		return sorted.get((int) Math.ceil(p * sorted.size()) - 1) / 1_000_000.0;
+	}
+
+	/**
+	 * Delays the execution of every statement once the application started,
+	 * standing in for the round trip to a remote database.
+	 */
+	private static class QueryLatency implements BeanPostProcessor {
+
+		private final AtomicBoolean slow;
+
+		QueryLatency(AtomicBoolean slow) {
+			this.slow = slow;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (!(bean instanceof DataSource dataSource)) {
+				return bean;
+			}
+			return new DelegatingDataSource(dataSource) {
+
+				@Override
+				public Connection getConnection() throws SQLException {
+					return delay(super.getConnection(), Connection.class);
+				}
+
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> T delay(T target, Class<?> type) {
+			return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+					(proxy, method, args) -> {
+						if (method.getName().startsWith("execute") && slow.get()) {
+							Thread.sleep(QUERY_LATENCY_MILLIS);
+						}
+						Object result;
+						try {
+							result = method.invoke(target, args);
+						} catch (InvocationTargetException e) {
+							throw e.getTargetException();
+						}
+						boolean statement = method.getName().startsWith("prepare")
+								|| method.getName().equals("createStatement");
+						return statement ? delay(result, method.getReturnType()) : result;
+					});
+		}
+
+	}
+}
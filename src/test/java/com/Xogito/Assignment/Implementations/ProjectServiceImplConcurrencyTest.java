@@ -0,0 +1,165 @@
+package com.Xogito.Assignment.Implementations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.Xogito.Assignment.AssignmentApplication;
+import com.Xogito.Assignment.DTOs.MembershipBatch;
+import com.Xogito.Assignment.DTOs.MembershipResult;
+import com.Xogito.Assignment.DTOs.MembershipResult.Status;
+import com.Xogito.Assignment.Models.Project;
+import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Repositories.ProjectRepository;
+import com.Xogito.Assignment.Repositories.UserRepository;
+
+/**
+ * Stress test of {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#assignUser
+ * assignUser()} and
+ * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#updateMembers
+ * updateMembers()} against the database: many threads assign the same users to
+ * the same projects at once, and every membership must be written exactly once.
+ */
+class ProjectServiceImplConcurrencyTest {
+
+	private static final int PROJECTS = 4;
+	private static final int USERS = 8;
+	private static final int THREADS = 16;
+
+	@Test
+	void assignUserConcurrently() throws Exception {
+		try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(AssignmentApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:hsqldb:mem:concurrent-assignments", "--spring.sql.init.mode=never",
+						"--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=error")) {
+			UserRepository uRepo = ctx.getBean(UserRepository.class);
+			ProjectRepository pRepo = ctx.getBean(ProjectRepository.class);
+			ProjectServiceImpl pSrv = ctx.getBean(ProjectServiceImpl.class);
+			List<User> users = uRepo.saveAll(IntStream.range(0, USERS)
+					.mapToObj(i -> new User(null, "Concurrent User " + i, "concurrent" + i + "@mail.com")).toList());
+			List<Project> projects = pRepo.saveAll(IntStream.range(0, PROJECTS)
+					.mapToObj(i -> new Project(null, "Concurrent Project " + i, "concurrent project " + i, null))
+					.toList());
+			Map<Long, Long> initialVersions = projects.stream()
+					.collect(Collectors.toMap(Project::getId, p -> pSrv.findVersions(p.getId()).getVersion()));
+
+			Map<String, AtomicInteger> assigned = new ConcurrentHashMap<>();
+			AtomicInteger conflicts = new AtomicInteger();
+			CountDownLatch start = new CountDownLatch(1);
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			try {
+				List<Future<?>> calls = new ArrayList<>();
+				for (int t = 0; t < THREADS; t++) {
+					List<String> pairs = new ArrayList<>();
+					projects.forEach(p -> users.forEach(u -> pairs.add(p.getId() + "/" + u.getEmail())));
+					Collections.shuffle(pairs);
+					calls.add(executor.submit(() -> {
+						start.await();
+						for (String pair : pairs) {
+							String[] parts = pair.split("/");
+							try {
+								pSrv.assignUser(Long.valueOf(parts[0]), parts[1]);
+								assigned.computeIfAbsent(pair, k -> new AtomicInteger()).incrementAndGet();
+							} catch (ResponseStatusException e) {
+								assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+								conflicts.incrementAndGet();
+							}
+						}
+						return null;
+					}));
+				}
+				start.countDown();
+				for (Future<?> call : calls) {
+					call.get(60, TimeUnit.SECONDS);
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+
+			assertEquals(PROJECTS * USERS, assigned.size());
+			assigned.forEach((pair, count) -> assertEquals(1, count.get(), pair));
+			assertEquals(PROJECTS * USERS * (THREADS - 1), conflicts.get());
+			Set<Long> userIds = users.stream().map(User::getId).collect(Collectors.toSet());
+			for (Project p : projects) {
+				Project stored = pRepo.findWithUsersById(p.getId()).orElseThrow();
+				assertEquals(userIds, stored.getUsers().stream().map(User::getId).collect(Collectors.toSet()));
+				assertEquals(initialVersions.get(p.getId()) + USERS, pSrv.findVersions(p.getId()).getVersion());
+			}
+		}
+	}
+
+	@Test
+	void updateMembersConcurrently() throws Exception {
+		try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(AssignmentApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:hsqldb:mem:concurrent-batches", "--spring.sql.init.mode=never",
+						"--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=error")) {
+			UserRepository uRepo = ctx.getBean(UserRepository.class);
+			ProjectRepository pRepo = ctx.getBean(ProjectRepository.class);
+			ProjectServiceImpl pSrv = ctx.getBean(ProjectServiceImpl.class);
+			List<String> emails = uRepo.saveAll(IntStream.range(0, USERS)
+					.mapToObj(i -> new User(null, "Batch User " + i, "batch" + i + "@mail.com")).toList()).stream()
+					.map(User::getEmail).toList();
+			Project project = pRepo.save(new Project(null, "Batch Project", "batch project", null));
+
+			Map<String, AtomicInteger> added = new ConcurrentHashMap<>();
+			CountDownLatch start = new CountDownLatch(1);
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			try {
+				List<Future<?>> calls = new ArrayList<>();
+				for (int t = 0; t < THREADS; t++) {
+					List<String> batch = new ArrayList<>(emails);
+					Collections.shuffle(batch);
+					calls.add(executor.submit(() -> {
+						start.await();
+						List<MembershipResult> results;
+						try {
+							results = pSrv.updateMembers(project.getId(), new MembershipBatch(batch, null));
+						} catch (ResponseStatusException e) {
+							// the whole batch lost to a concurrent one, so it's sent again
+							assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+							results = pSrv.updateMembers(project.getId(), new MembershipBatch(batch, null));
+						}
+						for (MembershipResult result : results) {
+							if (result.getStatus() == Status.ADDED) {
+								added.computeIfAbsent(result.getUser(), k -> new AtomicInteger()).incrementAndGet();
+							} else {
+								assertEquals(Status.ALREADY_ASSIGNED, result.getStatus());
+							}
+						}
+						return null;
+					}));
+				}
+				start.countDown();
+				for (Future<?> call : calls) {
+					call.get(60, TimeUnit.SECONDS);
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+
+			assertEquals(Set.copyOf(emails), added.keySet());
+			added.forEach((email, count) -> assertEquals(1, count.get(), email));
+		}
+	}
+}
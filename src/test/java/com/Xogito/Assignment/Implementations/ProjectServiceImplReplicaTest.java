@@ -0,0 +1,101 @@
+package com.Xogito.Assignment.Implementations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.Xogito.Assignment.AssignmentApplication;
+import com.Xogito.Assignment.Models.Project;
+import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Services.UserService;
+import com.Xogito.Assignment.Utilities.ReplicaRoutingDataSource;
+import com.Xogito.Assignment.Utilities.Views;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Routing of the {@link ProjectServiceImpl} queries with the {@code replica}
+ * profile, whose replica is a second in-memory database seeded with the
+ * primary on start and refreshed with its rows within the replication lag:
+ * the writes must succeed on the primary, only the writer's reads right after
+ * a write, and the reads loading the caches, must be served by the primary, and the write must reach the replica
+ * once the lag runs out, replacing the rows only the replica held.
+ */
+class ProjectServiceImplReplicaTest {
+
+	private static final long LAG_MILLIS = 1_000;
+
+	private static final String REPLICA_URL = "jdbc:hsqldb:mem:replica-routing-replica";
+
+	@Test
+	void routeReadsToTheReplica() throws Exception {
+		try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(AssignmentApplication.class)
+				.web(WebApplicationType.NONE).profiles("replica")
+				.run("--spring.datasource.url=jdbc:hsqldb:mem:replica-routing", "--spring.sql.init.mode=never",
+						"--assignment.datasource.replicas[0].url=" + REPLICA_URL,
+						"--assignment.datasource.replication-lag=" + LAG_MILLIS + "ms")) {
+			ProjectServiceImpl pSrv = ctx.getBean(ProjectServiceImpl.class);
+			MeterRegistry registry = ctx.getBean(MeterRegistry.class);
+			JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+			replica.update("insert into project (id, name, description, version) values (100, 'Replica Project', "
+					+ "'replica only', 0)");
+			User user = ctx.getBean(UserService.class).create(new User(null, "Primary User", "primary@mail.com"));
+			Project project = pSrv.create(new Project(null, "Primary Project", "primary only", null));
+
+			assertEquals(List.of("Primary Project"), names(pSrv.findAll(0, 10)));
+			// another client reads from the replica right away
+			double reads = routed(registry, "read-only");
+			anotherClient(() -> {
+				try {
+					return names(pSrv.findAll(0, 10));
+				} catch (ResponseStatusException e) {
+					// refreshed between the two writes
+					return List.of();
+				}
+			});
+			assertEquals(reads + 1, routed(registry, "read-only"));
+
+			Thread.sleep(LAG_MILLIS);
+			assertEquals(List.of("Primary Project"), anotherClient(() -> names(pSrv.findAll(0, 10))));
+			assertEquals(List.of("Primary Project"), names(pSrv.findAll(0, 10)));
+			assertEquals(reads + 3, routed(registry, "read-only"));
+
+			// the membership is read from the primary by the writer
+			Project assigned = pSrv.assignUser(project.getId(), user.getEmail());
+			assertEquals(List.of(user.getId()), assigned.getUsers().stream().map(User::getId).toList());
+			assertTrue(routed(registry, "recent-write") > 0);
+
+			// another client caches the project as written, not as the lagging replica holds it
+			pSrv.update(project.getId(), new Project(null, "Renamed Project", "primary only", null));
+			double pinned = routed(registry, "pinned");
+			assertEquals("Renamed Project",
+					anotherClient(() -> pSrv.findById(project.getId(), Views.fullDataView.class)).getName());
+			assertEquals(pinned + 1, routed(registry, "pinned"));
+		}
+	}
+
+	private static <T> T anotherClient(Supplier<T> read) {
+		return CompletableFuture.supplyAsync(read, r -> new Thread(r).start()).join();
+	}
+
+	private static List<String> names(List<Project> projects) {
+		return projects.stream().map(Project::getName).toList();
+	}
+
+	private static double routed(MeterRegistry registry, String reason) {
+		Counter counter = registry.find(ReplicaRoutingDataSource.METRIC).tag("reason", reason).counter();
+		return counter == null ? 0 : counter.count();
+	}
+}
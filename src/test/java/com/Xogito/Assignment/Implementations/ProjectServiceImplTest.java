@@ -1,24 +1,60 @@
 package com.Xogito.Assignment.Implementations;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.Xogito.Assignment.DTOs.MembershipBatch;
+import com.Xogito.Assignment.DTOs.MembershipResult;
+import com.Xogito.Assignment.DTOs.MembershipResult.Operation;
+import com.Xogito.Assignment.DTOs.MembershipResult.Status;
+import com.Xogito.Assignment.DTOs.MultiGetResult;
+import com.Xogito.Assignment.DTOs.ProjectVersions;
+import com.Xogito.Assignment.DTOs.Suggestion;
+import com.Xogito.Assignment.Configurations.AssignmentProperties;
+import com.Xogito.Assignment.Configurations.CachingConfiguration;
 import com.Xogito.Assignment.Models.Project;
 import com.Xogito.Assignment.Models.User;
 import com.Xogito.Assignment.Repositories.ProjectRepository;
 import com.Xogito.Assignment.Repositories.UserRepository;
+import com.Xogito.Assignment.Repositories.UserShards;
+import com.Xogito.Assignment.Utilities.Cursors;
+import com.Xogito.Assignment.Utilities.DataFormat;
+import com.Xogito.Assignment.Utilities.ETags;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+import com.Xogito.Assignment.Utilities.Views;
 
 /**
  * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl
@@ -34,8 +70,11 @@ class ProjectServiceImplTest {
 
 	@BeforeEach
 	void initServiceImpl() {
-		uSrv = new UserServiceImpl(uRepo);
-		pSrv = new ProjectServiceImpl(pRepo, uSrv);
+		uSrv = new UserServiceImpl(uRepo, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+				new AssignmentProperties(), new ConcurrentMapCacheManager(), UserShards.none());
+		pSrv = new ProjectServiceImpl(pRepo, uSrv, new ObjectMapper(),
+				Validation.buildDefaultValidatorFactory().getValidator(), new AssignmentProperties(),
+				new ConcurrentMapCacheManager());
 	}
 
 	/**
@@ -44,7 +83,7 @@ class ProjectServiceImplTest {
 	 */
 	@Test
 	void findAllNoProjects() {
-		when(pRepo.findAll(PageRequest.of(0, 3))).thenReturn(new PageImpl<Project>(List.of()));
+		when(pRepo.findAllBy(PageRequest.of(0, 3))).thenReturn(new PageImpl<Project>(List.of()));
 		assertThrows(ResponseStatusException.class, () -> {
 			pSrv.findAll(0, 3);
 		});
@@ -61,10 +100,52 @@ class ProjectServiceImplTest {
 				new Project(Long.valueOf(1), "Mock Project I", "description of mock project I", null),
 				new Project(Long.valueOf(1), "Mock Project II", "description of mock project II", null),
 				new Project(Long.valueOf(1), "Mock Project III", "description of mock project III", null));
-		when(pRepo.findAll(PageRequest.of(0, 3))).thenReturn(new PageImpl<Project>(mockP));
+		when(pRepo.findAllBy(PageRequest.of(0, 3))).thenReturn(new PageImpl<Project>(mockP));
 		assertEquals(mockP, pSrv.findAll(0, 3));
 	}
 
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAll
+	 * findAll()} method resolution with the full data view, which must load the
+	 * members of the whole page with one query and keep the page order.
+	 */
+	@Test
+	void findAllFullDataView() {
+		Project mockPI = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II", null);
+		Project mockPII = new Project(Long.valueOf(1), "Mock Project I", "description of mock project I", null);
+		when(pRepo.findAllBy(PageRequest.of(0, 2))).thenReturn(new PageImpl<Project>(List.of(mockPI, mockPII)));
+		when(pRepo.findWithUsersByIdIn(List.of(Long.valueOf(2), Long.valueOf(1))))
+				.thenReturn(List.of(mockPII, mockPI));
+		assertEquals(List.of(mockPI, mockPII), pSrv.findAll(0, 2, Views.fullDataView.class));
+		verify(pRepo, times(1)).findWithUsersByIdIn(List.of(Long.valueOf(2), Long.valueOf(1)));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllAfter
+	 * findAllAfter()} method resolution when there are no projects after the given cursor.
+	 */
+	@Test
+	void findAllAfterNoProjects() {
+		when(pRepo.findByIdGreaterThanOrderByIdAsc(Long.valueOf(3), PageRequest.of(0, 3)))
+				.thenReturn(new SliceImpl<Project>(List.of()));
+		assertThrows(ResponseStatusException.class, () -> pSrv.findAllAfter(Long.valueOf(3), 3));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllAfter
+	 * findAllAfter()} method resolution when the last chunk is retrieved.
+	 */
+	@Test
+	void findAllAfterLastChunk() {
+		List<Project> mockP = List.of(
+				new Project(Long.valueOf(4), "Mock Project IV", "description of mock project IV", null));
+		when(pRepo.findByIdGreaterThanOrderByIdAsc(Long.valueOf(3), PageRequest.of(0, 3)))
+				.thenReturn(new SliceImpl<Project>(mockP, PageRequest.of(0, 3), false));
+		Slice<Project> projects = pSrv.findAllAfter(Long.valueOf(3), 3);
+		assertEquals(mockP, projects.getContent());
+		assertNull(Cursors.next(projects, Project::getId));
+	}
+
 	/**
 	 * Tests
 	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllByName
@@ -128,6 +209,136 @@ class ProjectServiceImplTest {
 		assertEquals(mockUList, pSrv.findAllByName(mockName, 0, 3));
 	}
 
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllByName
+	 * findAllByName()} method resolution once the name index is built, which must
+	 * follow the renamed projects.
+	 */
+	@Test
+	void findAllByNameIndexed() {
+		Project mockPI = new Project(Long.valueOf(1), "Mock Project I", "description of mock project I", null);
+		mockPI.setVersion(Long.valueOf(0));
+		Project renamedPI = new Project(Long.valueOf(1), "Renamed I", "description of mock project I", null);
+		when(pRepo.streamAll()).thenReturn(Stream.of(mockPI));
+		pSrv.buildIndexes();
+		when(pRepo.findById(Long.valueOf(1))).thenReturn(Optional.of(mockPI));
+		when(pRepo.updateFields(Long.valueOf(1), Long.valueOf(0), Map.of("name", "Renamed I"))).thenReturn(1);
+		pSrv.update(Long.valueOf(1), renamedPI);
+		assertThrows(ResponseStatusException.class, () -> pSrv.findAllByName("project", 0, 5));
+		when(pRepo.findAllById(List.of(Long.valueOf(1)))).thenReturn(List.of(renamedPI));
+		assertEquals(List.of(renamedPI), pSrv.findAllByName("NAMED", 0, 5));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#count
+	 * count()} and
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#countByName
+	 * countByName()} methods resolution once the indexes are built, which must
+	 * follow the removed projects without querying the repository.
+	 */
+	@Test
+	void countMaintained() {
+		Project mockPI = new Project(Long.valueOf(1), "Mock Project I", "description of mock project I", null);
+		Project mockPII = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II", null);
+		when(pRepo.streamAll()).thenReturn(Stream.of(mockPI, mockPII));
+		pSrv.buildIndexes();
+		assertEquals(2, pSrv.count());
+		assertEquals(2, pSrv.countByName("project"));
+		when(pRepo.findById(Long.valueOf(1))).thenReturn(Optional.of(mockPI));
+		pSrv.remove(Long.valueOf(1));
+		assertEquals(1, pSrv.count());
+		assertEquals(1, pSrv.countByName("project"));
+		verify(pRepo, never()).count();
+		verify(pRepo, never()).countByNameContainingIgnoreCase(any());
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#count
+	 * count()} method resolution when a project is removed while the indexes are
+	 * built, which must keep the removal.
+	 */
+	@Test
+	void countRemovedWhileIndexing() {
+		Project mockPI = new Project(Long.valueOf(1), "Mock Project I", "description of mock project I", null);
+		Project mockPII = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II", null);
+		when(pRepo.findById(Long.valueOf(1))).thenReturn(Optional.of(mockPI));
+		when(pRepo.streamAll()).thenReturn(Stream.of(mockPI, mockPII).peek(p -> {
+			if (p == mockPII) {
+				pSrv.remove(Long.valueOf(1));
+			}
+		}));
+		pSrv.buildIndexes();
+		assertEquals(1, pSrv.count());
+		verify(pRepo, never()).count();
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#count
+	 * count()} and
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#countByName
+	 * countByName()} and
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#suggest
+	 * suggest()} methods resolution while the writes' transactions are open,
+	 * which must only follow them once they commit.
+	 */
+	@Test
+	void countAfterCommit() {
+		Project mockPI = new Project(Long.valueOf(1), "Mock Project I", "description of mock project I", null);
+		Project mockPII = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II", null);
+		when(pRepo.streamAll()).thenReturn(Stream.of(mockPI, mockPII));
+		pSrv.buildIndexes();
+		when(pRepo.findById(Long.valueOf(1))).thenReturn(Optional.of(mockPI));
+		inTransaction(() -> {
+			pSrv.remove(Long.valueOf(1));
+			assertEquals(2, pSrv.count());
+			assertEquals(2, pSrv.countByName("project"));
+			assertEquals(2, pSrv.suggest("mock p", 5).size());
+		}, true);
+		assertEquals(1, pSrv.count());
+		assertEquals(1, pSrv.countByName("project"));
+		assertEquals(List.of(new Suggestion(Long.valueOf(2), "Mock Project II")), pSrv.suggest("mock p", 5));
+		inTransaction(() -> pSrv.create(new Project(null, "Rolled Back Project", "rolled back", null)), false);
+		assertEquals(1, pSrv.count());
+		assertEquals(1, pSrv.countByName("project"));
+		assertEquals(List.of(), pSrv.suggest("rolled", 5));
+	}
+
+	/**
+	 * Runs an action as if in a transaction, which commits or rolls back.
+	 */
+	private static void inTransaction(Runnable action, boolean commit) {
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			action.run();
+			if (commit) {
+				TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			}
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#suggest
+	 * suggest()} method resolution, which must match names by prefix and drop the
+	 * removed projects.
+	 */
+	@Test
+	void suggestProjects() {
+		Project mockPI = new Project(Long.valueOf(1), "Mock Project I", "description of mock project I", null);
+		Project mockPII = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II", null);
+		when(pRepo.streamAll()).thenReturn(Stream.of(mockPII, mockPI));
+		pSrv.buildIndexes();
+		assertEquals(List.of(new Suggestion(Long.valueOf(1), "Mock Project I"),
+				new Suggestion(Long.valueOf(2), "Mock Project II")), pSrv.suggest("mock p", 5));
+		when(pRepo.findById(Long.valueOf(1))).thenReturn(Optional.of(mockPI));
+		pSrv.remove(Long.valueOf(1));
+		assertEquals(List.of(new Suggestion(Long.valueOf(2), "Mock Project II")), pSrv.suggest("mock p", 5));
+	}
+
 	/**
 	 * Tests
 	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findById
@@ -154,6 +365,196 @@ class ProjectServiceImplTest {
 		assertEquals(mockP, pSrv.findById(Long.valueOf(2)));
 	}
 
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findById
+	 * findById()} method resolution when the project is requested with the full
+	 * data view, which must load the members in the same query.
+	 */
+	@Test
+	void findByIdFullDataView() {
+		Project mockP = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II",
+				new HashSet<>(Set.of(new User(Long.valueOf(1), "Mock User I", "mock1@mail.com"))));
+		when(pRepo.findWithUsersById(Long.valueOf(2))).thenReturn(Optional.of(mockP));
+		assertEquals(mockP, pSrv.findById(Long.valueOf(2), Views.fullDataView.class));
+		verify(pRepo, never()).findById(Long.valueOf(2));
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findById
+	 * findById()} method resolution with a sparse fieldset, which must read only
+	 * the requested columns and never the members.
+	 */
+	@Test
+	void findByIdSparseFields() {
+		when(pRepo.findFields(List.of("id", "name"), List.of(Long.valueOf(2)), null, 0, 1))
+				.thenReturn(List.of(Map.of("id", Long.valueOf(2), "name", "Mock Project II")));
+		assertEquals(Map.of("id", Long.valueOf(2), "name", "Mock Project II"), pSrv.findById(Long.valueOf(2), List.of("name")));
+		when(pRepo.findFields(List.of("id"), List.of(Long.valueOf(9)), null, 0, 1)).thenReturn(List.of());
+		assertThrows(ResponseStatusException.class, () -> pSrv.findById(Long.valueOf(9), List.<String>of()));
+		assertThrows(ResponseStatusException.class, () -> pSrv.findById(Long.valueOf(2), List.of("users")));
+		verify(pRepo, never()).findById(any());
+		verify(pRepo, never()).findWithUsersById(any());
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllById
+	 * findAllById()} method resolution, which must serve the cached projects,
+	 * load the others with one query and keep the requested order.
+	 */
+	@Test
+	void findAllByIdCachedFirst() {
+		Project mockPI = new Project(Long.valueOf(1), "Mock Project I", "description of mock project I", new HashSet<>());
+		Project mockPII = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II", null);
+		ConcurrentMapCacheManager caches = new ConcurrentMapCacheManager();
+		caches.getCache(CachingConfiguration.PROJECTS).put(Long.valueOf(1), mockPI);
+		pSrv = new ProjectServiceImpl(pRepo, uSrv, new ObjectMapper(),
+				Validation.buildDefaultValidatorFactory().getValidator(), new AssignmentProperties(), caches);
+		when(pRepo.findAllById(List.of(Long.valueOf(2), Long.valueOf(5)))).thenReturn(List.of(mockPII));
+		MultiGetResult<Project> found = pSrv.findAllById(List.of(Long.valueOf(2), Long.valueOf(1), Long.valueOf(5), Long.valueOf(2)));
+		assertEquals(Arrays.asList(mockPII, mockPI, null, mockPII), found.getResults());
+		assertEquals(List.of(Long.valueOf(5)), found.getMissing());
+		verify(pRepo, times(1)).findAllById(any());
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findById
+	 * findById()} method resolution with a members limit, which must embed only
+	 * the first members in a copy of the project without loading the others.
+	 */
+	@Test
+	void findByIdMembersLimit() {
+		User mockUI = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		User mockUII = new User(Long.valueOf(2), "Mock User II", "mock2@mail.com");
+		Project mockP = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II", null);
+		mockP.setVersion(Long.valueOf(3));
+		when(pRepo.findById(Long.valueOf(2))).thenReturn(Optional.of(mockP));
+		when(pRepo.findMembers(Long.valueOf(2), Long.valueOf(0), PageRequest.of(0, 2)))
+				.thenReturn(new SliceImpl<User>(List.of(mockUI, mockUII), PageRequest.of(0, 2), true));
+		Project found = pSrv.findById(Long.valueOf(2), 2);
+		assertEquals(List.of(mockUI, mockUII), new ArrayList<>(found.getUsers()));
+		assertEquals(Long.valueOf(3), found.getVersion());
+		assertNull(mockP.getUsers());
+		verify(pRepo, never()).findWithUsersById(any());
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findMembers
+	 * findMembers()} method resolution, which must seek after the given member
+	 * and tell an empty page apart from a missing project.
+	 */
+	@Test
+	void findMembersAfter() {
+		User mockUIII = new User(Long.valueOf(3), "Mock User III", "mock3@mail.com");
+		Slice<User> members = new SliceImpl<User>(List.of(mockUIII), PageRequest.of(0, 2), false);
+		when(pRepo.findMembers(Long.valueOf(1), Long.valueOf(2), PageRequest.of(0, 2))).thenReturn(members);
+		assertEquals(members, pSrv.findMembers(Long.valueOf(1), Long.valueOf(2), 2));
+		when(pRepo.findMembers(Long.valueOf(1), Long.valueOf(3), PageRequest.of(0, 2))).thenReturn(new SliceImpl<User>(List.of()));
+		when(pRepo.existsById(Long.valueOf(1))).thenReturn(true);
+		assertEquals("There are no results to show.",
+				assertThrows(ResponseStatusException.class, () -> pSrv.findMembers(Long.valueOf(1), Long.valueOf(3), 2)).getReason());
+		when(pRepo.findMembers(Long.valueOf(9), Long.valueOf(0), PageRequest.of(0, 2))).thenReturn(new SliceImpl<User>(List.of()));
+		assertEquals("There are no projects with the id: '9'.",
+				assertThrows(ResponseStatusException.class, () -> pSrv.findMembers(Long.valueOf(9), null, 2)).getReason());
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllByMember
+	 * findAllByMember()} method resolution, which must seek the user's projects
+	 * after the given one and tell a user without more projects apart from a
+	 * missing user.
+	 */
+	@Test
+	void findAllByMember() {
+		Project mockPII = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II", null);
+		Slice<Project> projects = new SliceImpl<Project>(List.of(mockPII), PageRequest.of(0, 1), true);
+		when(pRepo.findByMember(Long.valueOf(1), Long.valueOf(0), PageRequest.of(0, 1))).thenReturn(projects);
+		assertEquals(projects, pSrv.findAllByMember(Long.valueOf(1), null, 1));
+		when(pRepo.findByMember(Long.valueOf(1), Long.valueOf(2), PageRequest.of(0, 1))).thenReturn(new SliceImpl<Project>(List.of()));
+		when(uRepo.findById(Long.valueOf(1))).thenReturn(Optional.of(new User(Long.valueOf(1), "Mock User I", "mock1@mail.com")));
+		assertEquals("There are no results to show.",
+				assertThrows(ResponseStatusException.class, () -> pSrv.findAllByMember(Long.valueOf(1), Long.valueOf(2), 1)).getReason());
+		when(pRepo.findByMember(Long.valueOf(9), Long.valueOf(0), PageRequest.of(0, 1))).thenReturn(new SliceImpl<Project>(List.of()));
+		assertEquals(HttpStatus.NOT_FOUND,
+				assertThrows(ResponseStatusException.class, () -> pSrv.findAllByMember(Long.valueOf(9), null, 1)).getStatusCode());
+		verify(uRepo).findById(Long.valueOf(9));
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findMembers
+	 * findMembers()} method resolution with a sparse fieldset, which must read the
+	 * member ids from the join table and only the requested columns of the
+	 * members, and reject unknown fields.
+	 */
+	@Test
+	void findMembersSparseFields() {
+		when(pRepo.findMemberIds(Long.valueOf(1), Long.valueOf(0), PageRequest.of(0, 2)))
+				.thenReturn(new SliceImpl<Long>(List.of(Long.valueOf(3), Long.valueOf(4)), PageRequest.of(0, 2), true));
+		when(uRepo.findFields(List.of("id", "email"), List.of(Long.valueOf(3), Long.valueOf(4)), null, 0, 2))
+				.thenReturn(List.of(Map.of("id", Long.valueOf(3), "email", "mock3@mail.com"),
+						Map.of("id", Long.valueOf(4), "email", "mock4@mail.com")));
+		Slice<Map<String, Object>> members = pSrv.findMembers(Long.valueOf(1), null, 2, List.of("email"));
+		assertEquals(List.of(Map.of("id", Long.valueOf(3), "email", "mock3@mail.com"),
+				Map.of("id", Long.valueOf(4), "email", "mock4@mail.com")), members.getContent());
+		assertTrue(members.hasNext());
+		assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class,
+				() -> pSrv.findMembers(Long.valueOf(1), null, 2, List.of("projects"))).getStatusCode());
+		verify(pRepo, never()).findMembers(any(), any(), any());
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllByName
+	 * findAllByName()} and
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findAllByMember
+	 * findAllByMember()} methods resolution with a sparse fieldset, which must
+	 * select only the requested columns of the matching projects.
+	 */
+	@Test
+	void findAllByNameAndMemberSparseFields() {
+		List<Map<String, Object>> found = List.of(Map.of("id", Long.valueOf(2), "name", "Mock Project II"));
+		when(pRepo.findFieldsByName(List.of("id", "name"), "project", 3, 3)).thenReturn(found);
+		assertEquals(found, pSrv.findAllByName("project", 1, 3, List.of("name")));
+		when(pRepo.findIdsByMember(Long.valueOf(1), Long.valueOf(0), PageRequest.of(0, 1)))
+				.thenReturn(new SliceImpl<Long>(List.of(Long.valueOf(2)), PageRequest.of(0, 1), true));
+		when(pRepo.findFields(List.of("id", "name"), List.of(Long.valueOf(2)), null, 0, 1)).thenReturn(found);
+		Slice<Map<String, Object>> projects = pSrv.findAllByMember(Long.valueOf(1), null, 1, List.of("name"));
+		assertEquals(found, projects.getContent());
+		assertTrue(projects.hasNext());
+		verify(pRepo, never()).findByNameContainingIgnoreCase(any(), any());
+		verify(pRepo, never()).findByMember(any(), any(), any());
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#findETag
+	 * findETag()} method resolution, which must read the versions without loading
+	 * the project and match the entity tag of the loaded project.
+	 */
+	@Test
+	void findETagFromVersions() {
+		User mockU = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		mockU.setVersion(Long.valueOf(2));
+		Project mockP = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II",
+				new HashSet<>(Set.of(mockU)));
+		mockP.setVersion(Long.valueOf(5));
+		ProjectVersions versions = Mockito.mock(ProjectVersions.class);
+		when(versions.getVersion()).thenReturn(Long.valueOf(5));
+		when(versions.getMembers()).thenReturn(Long.valueOf(1));
+		when(versions.getMembersVersion()).thenReturn(Long.valueOf(2));
+		when(pRepo.findVersionsById(Long.valueOf(2))).thenReturn(Optional.of(versions));
+		assertEquals("\"5.1.2\"", pSrv.findETag(Long.valueOf(2)));
+		assertEquals(ETags.of(mockP), pSrv.findETag(Long.valueOf(2)));
+		verify(pRepo, never()).findWithUsersById(Long.valueOf(2));
+		assertThrows(ResponseStatusException.class, () -> pSrv.findETag(Long.valueOf(3)));
+	}
+
 	/**
 	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#create
 	 * create()} method resolution when the new project's name is already in use.
@@ -162,7 +563,7 @@ class ProjectServiceImplTest {
 	void createUsedName() {
 		Project newMockProject = new Project(Long.valueOf(4), "Mock Project IV", "description of mock project IV",
 				null);
-		when(pRepo.save(newMockProject)).thenThrow(DataIntegrityViolationException.class);
+		when(pRepo.saveAndFlush(newMockProject)).thenThrow(DataIntegrityViolationException.class);
 		assertThrows(ResponseStatusException.class, () -> pSrv.create(newMockProject));
 	}
 
@@ -210,10 +611,61 @@ class ProjectServiceImplTest {
 	@Test
 	void updateSuccess() {
 		Project ogMockProject = new Project(Long.valueOf(4), "Mock Project IV", "description of mock project IV", null);
+		ogMockProject.setVersion(Long.valueOf(2));
 		Project updtMockProject = new Project(null, "Updated Mock Project IV", "updated description of mock project IV",
 				null);
 		when(pRepo.findById(Long.valueOf(4))).thenReturn(Optional.of(ogMockProject));
-		assertEquals(updtMockProject, pSrv.update(Long.valueOf(4), updtMockProject));
+		when(pRepo.updateFields(Long.valueOf(4), Long.valueOf(2), Map.of("name", "Updated Mock Project IV",
+				"description", "updated description of mock project IV"))).thenReturn(1);
+		assertEquals(new Project(Long.valueOf(4), "Updated Mock Project IV", "updated description of mock project IV",
+				null), pSrv.update(Long.valueOf(4), updtMockProject));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#update
+	 * update()} method resolution when the project has members, which must be
+	 * neither loaded nor replaced by the ones of the received project.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	void updateKeepsMembers() {
+		Set<User> members = Mockito.mock(Set.class);
+		Project ogMockProject = new Project(Long.valueOf(4), "Mock Project IV", "description of mock project IV",
+				members);
+		ogMockProject.setVersion(Long.valueOf(2));
+		when(pRepo.findById(Long.valueOf(4))).thenReturn(Optional.of(ogMockProject));
+		when(pRepo.updateFields(Long.valueOf(4), Long.valueOf(2), Map.of("description", "new description")))
+				.thenReturn(1);
+		pSrv.update(Long.valueOf(4), new Project(null, "Mock Project IV", "new description", new HashSet<>()));
+		verifyNoInteractions(members);
+		verify(pRepo, never()).save(any());
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#patch
+	 * patch()} method resolution, which must only write the sent properties that
+	 * changed and reject the ones that can't be updated.
+	 */
+	@Test
+	void patchChangedFieldsOnly() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		Project ogMockProject = new Project(Long.valueOf(4), "Mock Project IV", "description of mock project IV", null);
+		ogMockProject.setVersion(Long.valueOf(2));
+		when(pRepo.findById(Long.valueOf(4))).thenReturn(Optional.of(ogMockProject));
+		when(pRepo.updateFields(Long.valueOf(4), Long.valueOf(2), Map.of("description", "new description")))
+				.thenReturn(1);
+		Project patched = pSrv.patch(Long.valueOf(4),
+				mapper.readTree("{\"name\": \"Mock Project IV\", \"description\": \"new description\"}"), null);
+		assertEquals("Mock Project IV", patched.getName());
+		assertEquals("new description", patched.getDescription());
+		assertEquals(Long.valueOf(3), patched.getVersion());
+		assertThrows(ResponseStatusException.class,
+				() -> pSrv.patch(Long.valueOf(4), mapper.readTree("{\"name\": \"Mock Project IV\"}"), null));
+		assertThrows(ResponseStatusException.class,
+				() -> pSrv.patch(Long.valueOf(4), mapper.readTree("{\"users\": []}"), null));
+		assertThrows(ResponseStatusException.class,
+				() -> pSrv.patch(Long.valueOf(4), mapper.readTree("{\"name\": \" \"}"), null));
+		verify(pRepo, times(1)).updateFields(any(), any(), any());
 	}
 
 	/**
@@ -226,10 +678,47 @@ class ProjectServiceImplTest {
 	void assignUserAlreadyAssigned() {
 		String email = "mock4@mail.com";
 		User mockU = new User(Long.valueOf(4), "Mock User IV", email);
-		Project mockP = new Project(Long.valueOf(4), "Mock Project IV", "description of mock project IV",
-				List.of(mockU));
-		when(pRepo.findById(Long.valueOf(4))).thenReturn(Optional.of(mockP));
-		assertThrows(ResponseStatusException.class, () -> pSrv.assignUser(Long.valueOf(4), email));
+		when(pRepo.existsById(Long.valueOf(4))).thenReturn(true);
+		when(uRepo.findByEmail(email)).thenReturn(Optional.of(mockU));
+		when(pRepo.addMember(Long.valueOf(4), Long.valueOf(4))).thenReturn(0);
+		when(pRepo.existsByIdAndUsersId(Long.valueOf(4), Long.valueOf(4))).thenReturn(true);
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> pSrv.assignUser(Long.valueOf(4), email));
+		assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#assignUser
+	 * assignUser()} method resolution when a concurrent assignment of the same
+	 * user hits the join table's unique constraint first, so the membership is
+	 * checked without writing it again.
+	 */
+	@Test
+	void assignUserConcurrentlyAssigned() {
+		String email = "mock4@mail.com";
+		User mockU = new User(Long.valueOf(4), "Mock User IV", email);
+		when(pRepo.existsById(Long.valueOf(4))).thenReturn(true);
+		when(uRepo.findByEmail(email)).thenReturn(Optional.of(mockU));
+		when(pRepo.addMember(Long.valueOf(4), Long.valueOf(4))).thenThrow(DataIntegrityViolationException.class);
+		when(pRepo.existsByIdAndUsersId(Long.valueOf(4), Long.valueOf(4))).thenReturn(true);
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> pSrv.assignUser(Long.valueOf(4), email));
+		assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+		verify(pRepo, times(1)).addMember(Long.valueOf(4), Long.valueOf(4));
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#assignUser
+	 * assignUser()} method resolution when the project doesn't exist.
+	 */
+	@Test
+	void assignUserProjectNotFound() {
+		when(pRepo.existsById(Long.valueOf(4))).thenReturn(false);
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> pSrv.assignUser(Long.valueOf(4), "mock4@mail.com"));
+		assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
 	}
 
 	/**
@@ -243,12 +732,91 @@ class ProjectServiceImplTest {
 		String email = "mock4@mail.com";
 		User mockU = new User(Long.valueOf(4), "Mock User IV", email);
 		Project mockP = new Project(Long.valueOf(4), "Mock Project IV", "description of mock project IV",
-				new ArrayList<>());
-		when(pRepo.findById(Long.valueOf(4))).thenReturn(Optional.of(mockP));
+				new HashSet<>(Set.of(mockU)));
+		when(pRepo.existsById(Long.valueOf(4))).thenReturn(true);
 		when(uRepo.findByEmail(email)).thenReturn(Optional.of(mockU));
-		Project returnedVal = pSrv.assignUser(Long.valueOf(4), email);
-		mockP.getUsers().add(mockU);
-		assertEquals(mockP, returnedVal);
+		when(pRepo.addMember(Long.valueOf(4), Long.valueOf(4))).thenReturn(1);
+		when(pRepo.findWithUsersById(Long.valueOf(4))).thenReturn(Optional.of(mockP));
+		assertEquals(mockP, pSrv.assignUser(Long.valueOf(4), email));
+		verify(pRepo, never()).existsByIdAndUsersId(any(), any());
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#updateMembers
+	 * updateMembers()} method resolution when the project doesn't exist.
+	 */
+	@Test
+	void updateMembersProjectNotFound() {
+		when(pRepo.existsById(Long.valueOf(4))).thenReturn(false);
+		MembershipBatch batch = new MembershipBatch(List.of("mock1@mail.com"), List.of());
+		assertThrows(ResponseStatusException.class, () -> pSrv.updateMembers(Long.valueOf(4), batch));
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#updateMembers
+	 * updateMembers()} method resolution when there are no users to add nor
+	 * remove.
+	 */
+	@Test
+	void updateMembersEmptyBatch() {
+		assertThrows(ResponseStatusException.class,
+				() -> pSrv.updateMembers(Long.valueOf(4), new MembershipBatch(List.of(), null)));
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#updateMembers
+	 * updateMembers()} method resolution when the batch mixes emails, ids, unknown
+	 * users and already assigned users.
+	 */
+	@Test
+	void updateMembersReportsEveryEntry() {
+		User mockUI = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		User mockUII = new User(Long.valueOf(2), "Mock User II", "mock2@mail.com");
+		MembershipBatch batch = new MembershipBatch(List.of("mock1@mail.com", "2", "unknown@mail.com"), List.of("2"));
+		when(pRepo.existsById(Long.valueOf(4))).thenReturn(true);
+		when(uRepo.findByEmailInOrIdIn(Set.of("mock1@mail.com", "unknown@mail.com"), Set.of(Long.valueOf(2))))
+				.thenReturn(List.of(mockUI, mockUII));
+		when(pRepo.removeUsers(Long.valueOf(4), List.of(Long.valueOf(2)))).thenReturn(new int[] { 0 });
+		when(pRepo.addUsers(Long.valueOf(4), List.of(Long.valueOf(1), Long.valueOf(2)))).thenReturn(new int[] { 1, 0 });
+		assertEquals(List.of(new MembershipResult("2", Operation.REMOVE, Status.NOT_ASSIGNED),
+				new MembershipResult("mock1@mail.com", Operation.ADD, Status.ADDED),
+				new MembershipResult("2", Operation.ADD, Status.ALREADY_ASSIGNED),
+				new MembershipResult("unknown@mail.com", Operation.ADD, Status.NOT_FOUND)),
+				pSrv.updateMembers(Long.valueOf(4), batch));
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#updateMembers
+	 * updateMembers()} method resolution when an id is beyond the range of a
+	 * long, which must be reported as not found.
+	 */
+	@Test
+	void updateMembersOverflowingId() {
+		MembershipBatch batch = new MembershipBatch(List.of("99999999999999999999"), null);
+		when(pRepo.existsById(Long.valueOf(4))).thenReturn(true);
+		when(uRepo.findByEmailInOrIdIn(Set.of(), Set.of())).thenReturn(List.of());
+		assertEquals(List.of(new MembershipResult("99999999999999999999", Operation.ADD, Status.NOT_FOUND)),
+				pSrv.updateMembers(Long.valueOf(4), batch));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#exportProjects
+	 * exportProjects()} method resolution, which must write one project per line
+	 * without its members.
+	 */
+	@Test
+	void exportProjectsNdjson() throws IOException {
+		Project mockP = new Project(Long.valueOf(1), "Mock Project I", "description of mock project I",
+				new HashSet<>(Set.of(new User(Long.valueOf(1), "Mock User I", "mock1@mail.com"))));
+		when(pRepo.streamAll()).thenAnswer(i -> Stream.of(mockP));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		pSrv.exportProjects(out, DataFormat.NDJSON);
+		assertEquals("{\"id\":1,\"name\":\"Mock Project I\",\"description\":\"description of mock project I\"}\n",
+				out.toString(StandardCharsets.UTF_8));
 	}
 
 	/**
@@ -261,5 +829,28 @@ class ProjectServiceImplTest {
 		Project mockP = new Project(Long.valueOf(3), "Mock Project III", "description of mock project III", null);
 		when(pRepo.findById(Long.valueOf(3))).thenReturn(Optional.of(mockP));
 		assertEquals(mockP, pSrv.remove(Long.valueOf(3)));
+		verify(pRepo).deleteMemberships(List.of(Long.valueOf(3)));
+		verify(pRepo).deleteAllByIdInBatch(List.of(Long.valueOf(3)));
+		verify(pRepo, never()).findWithUsersById(any());
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.ProjectServiceImpl#removeAll
+	 * removeAll()} method resolution, which must delete every project with a
+	 * single statement and nothing when one of them doesn't exist.
+	 */
+	@Test
+	void removeAllProjects() {
+		Project mockPI = new Project(Long.valueOf(1), "Mock Project I", "description of mock project I", null);
+		Project mockPII = new Project(Long.valueOf(2), "Mock Project II", "description of mock project II", null);
+		when(pRepo.findAllById(Set.of(Long.valueOf(1), Long.valueOf(2)))).thenReturn(List.of(mockPII, mockPI));
+		assertEquals(List.of(mockPI, mockPII), pSrv.removeAll(List.of(Long.valueOf(1), Long.valueOf(2))));
+		verify(pRepo).deleteMemberships(Set.of(Long.valueOf(1), Long.valueOf(2)));
+		verify(pRepo).deleteAllByIdInBatch(Set.of(Long.valueOf(1), Long.valueOf(2)));
+		when(pRepo.findAllById(Set.of(Long.valueOf(1), Long.valueOf(5)))).thenReturn(List.of(mockPI));
+		assertThrows(ResponseStatusException.class,
+				() -> pSrv.removeAll(List.of(Long.valueOf(1), Long.valueOf(5))));
+		verify(pRepo, times(1)).deleteAllByIdInBatch(any());
 	}
 }
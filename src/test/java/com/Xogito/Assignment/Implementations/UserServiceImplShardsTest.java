@@ -0,0 +1,154 @@
+package com.Xogito.Assignment.Implementations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.Xogito.Assignment.AssignmentApplication;
+import com.Xogito.Assignment.Models.Project;
+import com.Xogito.Assignment.Models.User;
+import com.Xogito.Assignment.Repositories.UserShards;
+import com.Xogito.Assignment.Utilities.DataFormat;
+
+/**
+ * Storage of the users with the {@code user-shards} profile, which spreads them
+ * over three in-memory databases: every shard must get users, the lookups by id
+ * and email must find them after an email change, the listings must merge the
+ * shards in id order, and the projects must list members from every shard.
+ * Streaming every user must read the shards along, not one after the other.
+ */
+class UserServiceImplShardsTest {
+
+	private static final int USERS = 12;
+
+	private static final int IMPORTED = 4 * UserShards.ID_BLOCK_SIZE;
+
+	@Test
+	void spreadUsersOverTheShards() {
+		try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(AssignmentApplication.class)
+				.web(WebApplicationType.NONE).profiles("user-shards")
+				.run("--spring.datasource.url=jdbc:hsqldb:mem:user-shards")) {
+			UserServiceImpl uSrv = ctx.getBean(UserServiceImpl.class);
+			ProjectServiceImpl pSrv = ctx.getBean(ProjectServiceImpl.class);
+			List<User> users = new ArrayList<>();
+			for (int i = 0; i < USERS; i++) {
+				users.add(uSrv.create(new User(null, "Sharded User " + i, "sharded" + i + "@mail.com")));
+			}
+			Set<Integer> shards = users.stream().map(u -> UserShards.shardOf(u.getId())).collect(Collectors.toSet());
+			assertEquals(Set.of(0, 1, 2), shards);
+
+			List<Long> ids = users.stream().map(User::getId).sorted().toList();
+			assertEquals(ids, uSrv.findAll(0, USERS).stream().map(User::getId).toList());
+			assertEquals(ids.subList(4, 8), uSrv.findAll(1, 4).stream().map(User::getId).toList());
+			assertEquals(ids.subList(3, 5), uSrv.findAllAfter(ids.get(2), 2).map(User::getId).getContent());
+			assertEquals(USERS, uSrv.countByName("sharded"));
+
+			User renamed = users.get(0);
+			uSrv.update(renamed.getId(), new User(null, renamed.getName(), "renamed@mail.com"));
+			assertEquals(renamed.getId(), uSrv.findByEmail("renamed@mail.com").getId());
+			assertThrows(ResponseStatusException.class, () -> uSrv.findByEmail("sharded0@mail.com"));
+			assertThrows(ResponseStatusException.class,
+					() -> uSrv.create(new User(null, "Taken", "renamed@mail.com")));
+
+			Project project = pSrv.create(new Project(null, "Sharded Project", "sharded project", null));
+			users.subList(0, 3).forEach(u -> pSrv.assignUser(project.getId(), uSrv.findById(u.getId()).getEmail()));
+			List<Long> members = users.subList(0, 3).stream().map(User::getId).sorted().toList();
+			assertEquals(members, pSrv.findMembers(project.getId(), null, 10).map(User::getId).getContent());
+			assertEquals(3, pSrv.findVersions(project.getId()).getMembers());
+
+			uSrv.remove(users.get(1).getId());
+			assertTrue(pSrv.findMembers(project.getId(), null, 10).stream()
+					.noneMatch(u -> u.getId().equals(users.get(1).getId())));
+
+			// spans several blocks of ids in every shard
+			String body = IntStream.range(0, IMPORTED)
+					.mapToObj(i -> "{\"name\":\"Imported " + i + "\",\"email\":\"imported" + i + "@mail.com\"}")
+					.collect(Collectors.joining("\n"));
+			assertEquals(IMPORTED, uSrv.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+					DataFormat.NDJSON).getInserted());
+			assertEquals(USERS - 1 + IMPORTED, uSrv.findAll(0, USERS + IMPORTED).size());
+			// the deep pages must be read after an id
+			assertThrows(ResponseStatusException.class, () -> uSrv.findAll(UserShards.MAX_OFFSET / 10 + 1, 10));
+		}
+	}
+
+	@Test
+	void streamTheShardsTogether() throws Exception {
+		List<AtomicLong> reads = new ArrayList<>();
+		List<DataSource> databases = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			DataSource shard = new DriverManagerDataSource("jdbc:hsqldb:mem:streamed-shard-" + i, "sa", "");
+			new ResourceDatabasePopulator(new ClassPathResource("user-shards.sql")).execute(shard);
+			reads.add(new AtomicLong());
+			databases.add(counting(shard, DataSource.class, reads.get(i)));
+		}
+		try (UserShards shards = new UserShards(databases, Executors.newFixedThreadPool(3), 10)) {
+			List<User> users = IntStream.range(0, IMPORTED)
+					.mapToObj(i -> new User(null, "Streamed " + i, "streamed" + i + "@mail.com")).toList();
+			shards.insertAll(users);
+			reads.forEach(r -> r.set(0));
+
+			try (Stream<User> streamed = shards.streamAll()) {
+				Iterator<User> it = streamed.iterator();
+				assertEquals(users.stream().mapToLong(User::getId).min().getAsLong(), it.next().getId());
+				reads.forEach(r -> assertTrue(r.get() < IMPORTED / 3, "read " + r.get() + " rows of a shard"));
+			}
+			try (Stream<User> streamed = shards.streamAll()) {
+				assertEquals(users.stream().map(User::getId).sorted().toList(), streamed.map(User::getId).toList());
+			}
+		}
+	}
+
+	/**
+	 * Wraps a JDBC object so that the rows read from the result sets it hands out,
+	 * directly or through its connections and statements, are counted.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T counting(T target, Class<T> type, AtomicLong reads) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (target instanceof ResultSet && method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+				reads.incrementAndGet();
+			}
+			Class<?> returned = method.getReturnType();
+			if (result != null && (returned == Connection.class || returned == ResultSet.class
+					|| Statement.class.isAssignableFrom(returned))) {
+				return counting(result, (Class<Object>) returned, reads);
+			}
+			return result;
+		}));
+	}
+}
@@ -1,23 +1,60 @@
 package com.Xogito.Assignment.Implementations;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.Xogito.Assignment.Configurations.AssignmentProperties;
+import com.Xogito.Assignment.Configurations.CachingConfiguration;
+import com.Xogito.Assignment.DTOs.ImportSummary;
+import com.Xogito.Assignment.DTOs.ImportSummary.InvalidRow;
+import com.Xogito.Assignment.DTOs.MultiGetResult;
+import com.Xogito.Assignment.DTOs.Suggestion;
 import com.Xogito.Assignment.Models.User;
 import com.Xogito.Assignment.Repositories.UserRepository;
+import com.Xogito.Assignment.Repositories.UserShards;
+import com.Xogito.Assignment.Utilities.Cursors;
+import com.Xogito.Assignment.Utilities.DataFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
 
 /**
  * {@link com.Xogito.Assignment.Implementations.UserServiceImpl UserServiceImpl.class}
@@ -30,7 +67,8 @@ class UserServiceImplTest {
 
 	@BeforeEach
 	void initServiceImpl() {
-		uSrv = new UserServiceImpl(uRepo);
+		uSrv = new UserServiceImpl(uRepo, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+				new AssignmentProperties(), new ConcurrentMapCacheManager(), UserShards.none());
 	}
 
 	/**
@@ -39,7 +77,7 @@ class UserServiceImplTest {
 	 */
 	@Test
 	void findAllNoUsers() {
-		when(uRepo.findAll(PageRequest.of(0, 3))).thenReturn(new PageImpl<User>(List.of()));
+		when(uRepo.findAllBy(PageRequest.of(0, 3))).thenReturn(new PageImpl<User>(List.of()));
 		assertThrows(ResponseStatusException.class, () -> {
 			uSrv.findAll(0, 3);
 		});
@@ -55,10 +93,36 @@ class UserServiceImplTest {
 		List<User> mockU = List.of(new User(Long.valueOf(1), "Mock User I", "mock1@mail.com"),
 				new User(Long.valueOf(2), "Mock User II", "mock2@mail.com"),
 				new User(Long.valueOf(3), "Mock User III", "mock3@mail.com"));
-		when(uRepo.findAll(PageRequest.of(0, 3))).thenReturn(new PageImpl<User>(mockU));
+		when(uRepo.findAllBy(PageRequest.of(0, 3))).thenReturn(new PageImpl<User>(mockU));
 		assertEquals(mockU, uSrv.findAll(0, 3));
 	}
 
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findAllAfter
+	 * findAllAfter()} method resolution when there are no users after the given cursor.
+	 */
+	@Test
+	void findAllAfterNoUsers() {
+		when(uRepo.findByIdGreaterThanOrderByIdAsc(Long.valueOf(3), PageRequest.of(0, 3)))
+				.thenReturn(new SliceImpl<User>(List.of()));
+		assertThrows(ResponseStatusException.class, () -> uSrv.findAllAfter(Long.valueOf(3), 3));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findAllAfter
+	 * findAllAfter()} method resolution when the first chunk is requested without a cursor.
+	 */
+	@Test
+	void findAllAfterFirstChunk() {
+		List<User> mockU = List.of(new User(Long.valueOf(1), "Mock User I", "mock1@mail.com"),
+				new User(Long.valueOf(2), "Mock User II", "mock2@mail.com"));
+		when(uRepo.findByIdGreaterThanOrderByIdAsc(Long.valueOf(0), PageRequest.of(0, 2)))
+				.thenReturn(new SliceImpl<User>(mockU, PageRequest.of(0, 2), true));
+		Slice<User> users = uSrv.findAllAfter(null, 2);
+		assertEquals(mockU, users.getContent());
+		assertEquals(Long.valueOf(2), Cursors.decode(Cursors.next(users, User::getId)));
+	}
+
 	/**
 	 * Tests
 	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findAllByName
@@ -119,6 +183,190 @@ class UserServiceImplTest {
 		assertEquals(mockUList, uSrv.findAllByName(mockName, 0, 3));
 	}
 
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findAllByName
+	 * findAllByName()} method resolution once the name index is built, which must
+	 * page the matches by id, keep the index in sync with the write paths and
+	 * leave the short queries to the repository.
+	 */
+	@Test
+	void findAllByNameIndexed() {
+		User mockUI = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		User mockUII = new User(Long.valueOf(2), "Mock User II", "mock2@mail.com");
+		User mockUIII = new User(Long.valueOf(3), "Other III", "mock3@mail.com");
+		when(uRepo.streamAll()).thenReturn(Stream.of(mockUI, mockUII, mockUIII));
+		uSrv.buildIndexes();
+		when(uRepo.findAllById(List.of(Long.valueOf(2)))).thenReturn(List.of(mockUII));
+		assertEquals(List.of(mockUII), uSrv.findAllByName("mOCK user", 1, 1));
+		when(uRepo.findById(Long.valueOf(3))).thenReturn(Optional.of(mockUIII));
+		uSrv.remove(Long.valueOf(3));
+		assertThrows(ResponseStatusException.class, () -> uSrv.findAllByName("other", 0, 5));
+		when(uRepo.findByNameContainingIgnoreCase("ck", PageRequest.of(0, 5)))
+				.thenReturn(new PageImpl<User>(List.of(mockUI, mockUII)));
+		assertEquals(List.of(mockUI, mockUII), uSrv.findAllByName("ck", 0, 5));
+		verify(uRepo, never()).findByNameContainingIgnoreCase("mOCK user", PageRequest.of(1, 1));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#count
+	 * count()} method resolution, which must ask the repository until the indexes
+	 * are built and then follow the removed users without counting again.
+	 */
+	@Test
+	void countMaintained() {
+		User mockUI = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		User mockUII = new User(Long.valueOf(2), "Mock User II", "mock2@mail.com");
+		when(uRepo.count()).thenReturn(Long.valueOf(7));
+		assertEquals(7, uSrv.count());
+		when(uRepo.streamAll()).thenReturn(Stream.of(mockUI, mockUII));
+		uSrv.buildIndexes();
+		assertEquals(2, uSrv.count());
+		when(uRepo.findById(Long.valueOf(2))).thenReturn(Optional.of(mockUII));
+		uSrv.remove(Long.valueOf(2));
+		assertEquals(1, uSrv.count());
+		verify(uRepo, times(1)).count();
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#countByName
+	 * countByName()} method resolution, which must count the matches on the name
+	 * index and fall back to the repository for too short names.
+	 */
+	@Test
+	void countByNameIndexed() {
+		User mockUI = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		User mockUII = new User(Long.valueOf(2), "Mock User II", "mock2@mail.com");
+		User mockUIII = new User(Long.valueOf(3), "Other III", "mock3@mail.com");
+		when(uRepo.streamAll()).thenReturn(Stream.of(mockUI, mockUII, mockUIII));
+		uSrv.buildIndexes();
+		assertEquals(2, uSrv.countByName("mock USER"));
+		assertEquals(0, uSrv.countByName("nobody"));
+		when(uRepo.countByNameContainingIgnoreCase("ck")).thenReturn(Long.valueOf(2));
+		assertEquals(2, uSrv.countByName("ck"));
+		verify(uRepo, never()).countByNameContainingIgnoreCase("mock USER");
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#suggest
+	 * suggest()} method resolution, which must match names and emails by prefix,
+	 * list every user once and follow the updated users.
+	 */
+	@Test
+	void suggestUsers() {
+		User mockUI = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		User mockUII = new User(Long.valueOf(2), "Mock User II", "mock2@mail.com");
+		User mockUIII = new User(Long.valueOf(3), "Other III", "mock3@mail.com");
+		when(uRepo.streamAll()).thenReturn(Stream.of(mockUI, mockUII, mockUIII));
+		uSrv.buildIndexes();
+		assertEquals(List.of(new Suggestion(Long.valueOf(1), "Mock User I"),
+				new Suggestion(Long.valueOf(2), "Mock User II")), uSrv.suggest("MOCK", 2));
+		assertEquals(List.of(new Suggestion(Long.valueOf(2), "mock2@mail.com")), uSrv.suggest("mock2", 10));
+		assertEquals(List.of(new Suggestion(Long.valueOf(3), "Other III")), uSrv.suggest("oth", 10));
+		mockUIII.setVersion(Long.valueOf(0));
+		when(uRepo.findById(Long.valueOf(3))).thenReturn(Optional.of(mockUIII));
+		when(uRepo.updateFields(any(), any(), any())).thenReturn(1);
+		uSrv.update(Long.valueOf(3), new User(null, "other iii", "other3@mail.com"));
+		assertEquals(List.of(new Suggestion(Long.valueOf(3), "other iii")), uSrv.suggest("oth", 1));
+		assertEquals(List.of(), uSrv.suggest("mock3", 10));
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findAllAfter
+	 * findAllAfter()} method resolution with a sparse fieldset, which must select
+	 * the id along with the requested fields only and reject unknown fields.
+	 */
+	@Test
+	void findAllAfterSparseFields() {
+		List<String> fields = List.of("id", "email");
+		when(uRepo.findFields(fields, null, Long.valueOf(3), 0, 3)).thenReturn(List.of(
+				Map.of("id", Long.valueOf(4), "email", "mock4@mail.com"), Map.of("id", Long.valueOf(5), "email", "mock5@mail.com"),
+				Map.of("id", Long.valueOf(6), "email", "mock6@mail.com")));
+		Slice<Map<String, Object>> users = uSrv.findAllAfter(Long.valueOf(3), 2, List.of("email", " email"));
+		assertEquals(List.of(Map.of("id", Long.valueOf(4), "email", "mock4@mail.com"),
+				Map.of("id", Long.valueOf(5), "email", "mock5@mail.com")), users.getContent());
+		assertTrue(users.hasNext());
+		assertEquals(HttpStatus.BAD_REQUEST,
+				assertThrows(ResponseStatusException.class, () -> uSrv.findAll(0, 2, List.of("version"))).getStatusCode());
+		verify(uRepo, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findById
+	 * findById()} method resolution under concurrent lookups of the same user,
+	 * which must share a single query and its result or exception.
+	 */
+	@Test
+	void findByIdCoalesced() throws Exception {
+		User mockU = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		CountDownLatch release = new CountDownLatch(1);
+		when(uRepo.findById(Long.valueOf(1))).thenAnswer(invocation -> {
+			release.await();
+			return Optional.of(mockU);
+		});
+		when(uRepo.findById(Long.valueOf(2))).thenAnswer(invocation -> {
+			release.await();
+			return Optional.empty();
+		});
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<User>> found = new ArrayList<>();
+			List<Future<User>> missing = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				found.add(pool.submit(() -> uSrv.findById(Long.valueOf(1))));
+				missing.add(pool.submit(() -> uSrv.findById(Long.valueOf(2))));
+			}
+			verify(uRepo, timeout(5000)).findById(Long.valueOf(1));
+			verify(uRepo, timeout(5000)).findById(Long.valueOf(2));
+			Thread.sleep(200);
+			release.countDown();
+			for (Future<User> f : found) {
+				assertSame(mockU, f.get(5, TimeUnit.SECONDS));
+			}
+			Set<Throwable> errors = new HashSet<>();
+			for (Future<User> f : missing) {
+				errors.add(assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS)).getCause());
+			}
+			assertEquals(1, errors.size());
+			assertInstanceOf(ResponseStatusException.class, errors.iterator().next());
+		} finally {
+			pool.shutdownNow();
+		}
+		verify(uRepo, times(1)).findById(Long.valueOf(1));
+		verify(uRepo, times(1)).findById(Long.valueOf(2));
+	}
+
+	/**
+	 * Tests
+	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findAllById
+	 * findAllById()} method resolution, which must load the uncached users in
+	 * chunks, cache them and keep the requested order.
+	 */
+	@Test
+	void findAllByIdInChunks() {
+		User mockUI = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		User mockUII = new User(Long.valueOf(2), "Mock User II", "mock2@mail.com");
+		User mockUIII = new User(Long.valueOf(3), "Mock User III", "mock3@mail.com");
+		AssignmentProperties props = new AssignmentProperties();
+		props.getJdbc().setInClauseSize(2);
+		CacheManager caches = new ConcurrentMapCacheManager();
+		uSrv = new UserServiceImpl(uRepo, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+				props, caches, UserShards.none());
+		when(uRepo.findAllById(List.of(Long.valueOf(3), Long.valueOf(9)))).thenReturn(List.of(mockUIII));
+		when(uRepo.findAllById(List.of(Long.valueOf(1)))).thenReturn(List.of(mockUI));
+		when(uRepo.findAllById(List.of(Long.valueOf(2)))).thenReturn(List.of(mockUII));
+		MultiGetResult<User> found = uSrv.findAllById(List.of(Long.valueOf(3), Long.valueOf(9), Long.valueOf(1)));
+		assertEquals(Arrays.asList(mockUIII, null, mockUI), found.getResults());
+		assertEquals(List.of(Long.valueOf(9)), found.getMissing());
+		found = uSrv.findAllById(List.of(Long.valueOf(1), Long.valueOf(2), Long.valueOf(3)));
+		assertEquals(List.of(mockUI, mockUII, mockUIII), found.getResults());
+		assertEquals(List.of(), found.getMissing());
+		assertEquals(mockUII, caches.getCache(CachingConfiguration.USERS).get(Long.valueOf(2), User.class));
+		verify(uRepo, times(1)).findAllById(List.of(Long.valueOf(1)));
+		verify(uRepo, times(3)).findAllById(any());
+	}
+
 	/**
 	 * Tests
 	 * {@link com.Xogito.Assignment.Implementations.UserServiceImpl#findById
@@ -180,7 +428,7 @@ class UserServiceImplTest {
 	@Test
 	void createUserWithUsedEmail() {
 		User newMockUser = new User(Long.valueOf(4), "Mock User IV", "mock4@mail.com");
-		when(uRepo.save(newMockUser)).thenThrow(DataIntegrityViolationException.class);
+		when(uRepo.saveAndFlush(newMockUser)).thenThrow(DataIntegrityViolationException.class);
 		assertThrows(ResponseStatusException.class, () -> uSrv.create(newMockUser));
 	}
 
@@ -194,6 +442,80 @@ class UserServiceImplTest {
 		assertEquals(newMockUser, uSrv.create(newMockUser));
 	}
 
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#importUsers
+	 * importUsers()} method resolution with an NDJSON body mixing valid,
+	 * invalid, unparseable and duplicate rows.
+	 */
+	@Test
+	void importUsersNdjson() {
+		String body = """
+				{"name": "Mock User IV", "email": "mock4@mail.com"}
+				{"name": "", "email": "mock5@mail.com"}
+				{"name": "Mock User VI", "email": "mock1@mail.com"}
+				not a json record
+
+				{"name": "Mock User VII", "email": "mock4@mail.com"}
+				""";
+		when(uRepo.findExistingEmails(Set.of("mock4@mail.com", "mock1@mail.com"))).thenReturn(List.of("mock1@mail.com"));
+		ImportSummary summary = uSrv.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+				DataFormat.NDJSON);
+		verify(uRepo).insertAll(List.of(new User(null, "Mock User IV", "mock4@mail.com")));
+		assertEquals(1, summary.getInserted());
+		assertEquals(List.of("mock4@mail.com", "mock1@mail.com"), summary.getDuplicateEmails());
+		assertEquals(List.of(2L, 4L), summary.getInvalidRows().stream().map(InvalidRow::getLine).toList());
+		assertEquals("name must not be null nor empty", summary.getInvalidRows().get(0).getErrors().get("name"));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#importUsers
+	 * importUsers()} method resolution with a CSV body, which must be inserted in
+	 * chunks of the configured batch size.
+	 */
+	@Test
+	void importUsersCsvInChunks() {
+		AssignmentProperties props = new AssignmentProperties();
+		props.getJdbc().setBatchSize(2);
+		uSrv = new UserServiceImpl(uRepo, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+				props, new ConcurrentMapCacheManager(), UserShards.none());
+		String body = """
+				email,name
+				mock4@mail.com,Mock User IV
+				mock5@mail.com,Mock User V
+				mock6@mail.com,Mock User VI
+				""";
+		ImportSummary summary = uSrv.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+				DataFormat.CSV);
+		verify(uRepo, times(2)).insertAll(any());
+		assertEquals(3, summary.getInserted());
+		assertEquals(0, summary.getInvalid());
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#exportUsers
+	 * exportUsers()} method resolution, which must write one user per line in
+	 * both formats.
+	 */
+	@Test
+	void exportUsersNdjsonAndCsv() throws IOException {
+		List<User> mockU = List.of(new User(Long.valueOf(1), "Mock User I", "mock1@mail.com"),
+				new User(Long.valueOf(2), "Mock User II", "mock2@mail.com"));
+		when(uRepo.streamAll()).thenAnswer(i -> mockU.stream());
+		ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+		uSrv.exportUsers(ndjson, DataFormat.NDJSON);
+		assertEquals("""
+				{"id":1,"name":"Mock User I","email":"mock1@mail.com"}
+				{"id":2,"name":"Mock User II","email":"mock2@mail.com"}
+				""", ndjson.toString(StandardCharsets.UTF_8));
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		uSrv.exportUsers(csv, DataFormat.CSV);
+		assertEquals("""
+				id,name,email
+				1,"Mock User I",mock1@mail.com
+				2,"Mock User II",mock2@mail.com
+				""", csv.toString(StandardCharsets.UTF_8));
+	}
+
 	/**
 	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#update
 	 * update()} method resolution when the updated user's new email is already in
@@ -226,9 +548,83 @@ class UserServiceImplTest {
 	@Test
 	void updateUserSuccess() {
 		User ogMockUser = new User(Long.valueOf(4), "Mock User IV", "mock4@mail.com");
+		ogMockUser.setVersion(Long.valueOf(0));
 		User updtMockUser = new User(null, "Updated Mock User IV", "updtmock4@mail.com");
 		when(uRepo.findById(Long.valueOf(4))).thenReturn(Optional.of(ogMockUser));
-		assertEquals(updtMockUser, uSrv.update(Long.valueOf(4), updtMockUser));
+		when(uRepo.updateFields(any(), any(), any())).thenReturn(1);
+		assertEquals(new User(Long.valueOf(4), "Updated Mock User IV", "updtmock4@mail.com"),
+				uSrv.update(Long.valueOf(4), updtMockUser));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#update
+	 * update()} method resolution when the user was modified since the version
+	 * given in the If-Match header.
+	 */
+	@Test
+	void updateUserModifiedVersion() {
+		User ogMockUser = new User(Long.valueOf(4), "Mock User IV", "mock4@mail.com");
+		ogMockUser.setVersion(Long.valueOf(3));
+		User updtMockUser = new User(null, "Updated Mock User IV", "updtmock4@mail.com");
+		when(uRepo.findById(Long.valueOf(4))).thenReturn(Optional.of(ogMockUser));
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> uSrv.update(Long.valueOf(4), updtMockUser, "\"2\""));
+		assertEquals(HttpStatus.PRECONDITION_FAILED, e.getStatusCode());
+		verify(uRepo, never()).updateFields(any(), any(), any());
+		when(uRepo.updateFields(any(), any(), any())).thenReturn(1);
+		assertEquals(Long.valueOf(4), uSrv.update(Long.valueOf(4), updtMockUser, "\"2\", \"3\"").getVersion());
+		verify(uRepo).updateFields(Long.valueOf(4), Long.valueOf(3),
+				Map.of("name", "Updated Mock User IV", "email", "updtmock4@mail.com"));
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#patch
+	 * patch()} method resolution, which must only write the sent properties that
+	 * changed, validate them and reject the ones that can't be updated.
+	 */
+	@Test
+	void patchUserChangedFieldsOnly() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		User ogMockUser = new User(Long.valueOf(4), "Mock User IV", "mock4@mail.com");
+		ogMockUser.setVersion(Long.valueOf(1));
+		when(uRepo.findById(Long.valueOf(4))).thenReturn(Optional.of(ogMockUser));
+		when(uRepo.updateFields(Long.valueOf(4), Long.valueOf(1), Map.of("email", "updtmock4@mail.com"))).thenReturn(1);
+		assertEquals(new User(Long.valueOf(4), "Mock User IV", "updtmock4@mail.com"),
+				uSrv.patch(Long.valueOf(4), mapper.readTree("{\"email\": \"updtmock4@mail.com\"}"), null));
+		assertThrows(ResponseStatusException.class,
+				() -> uSrv.patch(Long.valueOf(4), mapper.readTree("{\"name\": \"Mock User IV\"}"), null));
+		assertThrows(ResponseStatusException.class,
+				() -> uSrv.patch(Long.valueOf(4), mapper.readTree("{\"email\": \"not an email\"}"), null));
+		assertThrows(ResponseStatusException.class,
+				() -> uSrv.patch(Long.valueOf(4), mapper.readTree("{\"id\": 5}"), null));
+		assertThrows(ResponseStatusException.class, () -> uSrv.patch(Long.valueOf(4), mapper.readTree("[]"), null));
+		verify(uRepo, times(1)).updateFields(any(), any(), any());
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#update
+	 * update()} method resolution when the user is cached, which must evict it by
+	 * id and by its previous email along with the projects it's a member of.
+	 */
+	@Test
+	void updateUserEvictsCaches() {
+		CacheManager caches = new ConcurrentMapCacheManager();
+		uSrv = new UserServiceImpl(uRepo, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+				new AssignmentProperties(), caches, UserShards.none());
+		User ogMockUser = new User(Long.valueOf(4), "Mock User IV", "mock4@mail.com");
+		ogMockUser.setVersion(Long.valueOf(0));
+		when(uRepo.updateFields(any(), any(), any())).thenReturn(1);
+		caches.getCache(CachingConfiguration.USERS).put(Long.valueOf(4), ogMockUser);
+		caches.getCache(CachingConfiguration.USERS_BY_EMAIL).put("mock4@mail.com", ogMockUser);
+		caches.getCache(CachingConfiguration.PROJECTS).put(Long.valueOf(1), "cached project");
+		caches.getCache(CachingConfiguration.PROJECTS).put(Long.valueOf(2), "cached project");
+		when(uRepo.findById(Long.valueOf(4))).thenReturn(Optional.of(ogMockUser));
+		when(uRepo.findProjectIds(List.of(Long.valueOf(4)))).thenReturn(List.of(Long.valueOf(1)));
+		uSrv.update(Long.valueOf(4), new User(null, "Mock User IV", "updtmock4@mail.com"));
+		assertNull(caches.getCache(CachingConfiguration.USERS).get(Long.valueOf(4)));
+		assertNull(caches.getCache(CachingConfiguration.USERS_BY_EMAIL).get("mock4@mail.com"));
+		assertNull(caches.getCache(CachingConfiguration.PROJECTS).get(Long.valueOf(1)));
+		assertNotNull(caches.getCache(CachingConfiguration.PROJECTS).get(Long.valueOf(2)));
 	}
 
 	/**
@@ -241,5 +637,43 @@ class UserServiceImplTest {
 		User mockU = new User(Long.valueOf(3), "Mock User III", "mock3@mail.com");
 		when(uRepo.findById(Long.valueOf(3))).thenReturn(Optional.of(mockU));
 		assertEquals(mockU, uSrv.remove(Long.valueOf(3)));
+		verify(uRepo).deleteMemberships(List.of(Long.valueOf(3)));
+		verify(uRepo).deleteAllByIdInBatch(List.of(Long.valueOf(3)));
+		verify(uRepo, never()).delete(any());
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#remove
+	 * remove()} method resolution when the user was modified after the version
+	 * given in the If-Match header was checked.
+	 */
+	@Test
+	void removeUserModifiedConcurrently() {
+		User mockU = new User(Long.valueOf(3), "Mock User III", "mock3@mail.com");
+		mockU.setVersion(Long.valueOf(2));
+		when(uRepo.findById(Long.valueOf(3))).thenReturn(Optional.of(mockU));
+		when(uRepo.deleteByIdAndVersion(Long.valueOf(3), Long.valueOf(2))).thenReturn(0);
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> uSrv.remove(Long.valueOf(3), "\"2\""));
+		assertEquals(HttpStatus.PRECONDITION_FAILED, e.getStatusCode());
+		verify(uRepo, never()).deleteAllByIdInBatch(any());
+	}
+
+	/**
+	 * Tests {@link com.Xogito.Assignment.Implementations.UserServiceImpl#removeAll
+	 * removeAll()} method resolution, which must delete every user with a single
+	 * statement and nothing when one of them doesn't exist.
+	 */
+	@Test
+	void removeAllUsers() {
+		User mockUI = new User(Long.valueOf(1), "Mock User I", "mock1@mail.com");
+		User mockUII = new User(Long.valueOf(2), "Mock User II", "mock2@mail.com");
+		when(uRepo.findAllById(Set.of(Long.valueOf(1), Long.valueOf(2)))).thenReturn(List.of(mockUII, mockUI));
+		assertEquals(List.of(mockUI, mockUII), uSrv.removeAll(List.of(Long.valueOf(2), Long.valueOf(1), Long.valueOf(2))));
+		verify(uRepo).deleteMemberships(Set.of(Long.valueOf(1), Long.valueOf(2)));
+		verify(uRepo).deleteAllByIdInBatch(Set.of(Long.valueOf(1), Long.valueOf(2)));
+		when(uRepo.findAllById(Set.of(Long.valueOf(1), Long.valueOf(5)))).thenReturn(List.of(mockUI));
+		assertThrows(ResponseStatusException.class, () -> uSrv.removeAll(List.of(Long.valueOf(1), Long.valueOf(5))));
+		verify(uRepo, times(1)).deleteAllByIdInBatch(any());
 	}
 }
@@ -4,4 +4,5 @@ insert into project (id, name, description) values (3, 'third', 'the third mock
 
 insert into user (id, name, email) values (1, 'Mock User I', 'mock1@mail.com');
 insert into user (id, name, email) values (2, 'Mock User II', 'mock2@mail.com');
-insert into user (id, name, email) values (3, 'Mock User III', 'mock3@mail.com');
\ No newline at end of file
+insert into user (id, name, email) values (3, 'Mock User III', 'mock3@mail.com');
+alter sequence user_seq restart with 100;
\ No newline at end of file